@@ -0,0 +1,100 @@
+package com.syedraza.WaveFront.bench;
+
+import java.lang.management.ManagementFactory;
+
+import com.syedraza.WaveFront.PathBuffer;
+import com.syedraza.WaveFront.Point2D;
+import com.syedraza.WaveFront.SearchWorkspace;
+
+/**
+ * Checks that a warmed up {@link SearchWorkspace} answers repeated queries
+ * without allocating, both by its own
+ * {@link SearchWorkspace#getAllocations() count} and by the bytes the JVM
+ * reports the thread allocated.
+ * <p>
+ * Run it from the {@code bench} directory after packaging with
+ * {@code java -cp target/benchmarks.jar
+ * com.syedraza.WaveFront.bench.AllocationCheck}. It prints a line per map and
+ * exits with a status of 1 if any query allocated.
+ */
+public final class AllocationCheck {
+    /** The number of rows and columns of the maps. */
+    private static final int SIZE = 256;
+    /** The number of queries run before measuring, to warm up the JIT. */
+    private static final int WARMUP_QUERIES = 2000;
+    /** The number of queries measured. */
+    private static final int QUERIES = 1000;
+
+    /**
+     * Prevents the class from being instantiated.
+     */
+    private AllocationCheck() {
+    }
+
+    /**
+     * Runs the check on a map of each pattern.
+     *
+     * @param args Ignored.
+     */
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean)
+                ManagementFactory.getThreadMXBean();
+        boolean passed = true;
+
+        for (BenchMap.Pattern pattern : BenchMap.Pattern.values()) {
+            BenchMap map = BenchMap.generate(pattern, SIZE, BenchMap.SEED);
+            Point2D middle = new Point2D(SIZE / 2, SIZE / 2);
+            SearchWorkspace workspace = new SearchWorkspace();
+            PathBuffer out = new PathBuffer();
+
+            // Grow the buffers to the longest path before measuring
+            for (int i = 0; i < WARMUP_QUERIES; i++) {
+                query(workspace, map, middle, out, i);
+            }
+
+            long count = workspace.getAllocations() + out.getAllocations();
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < QUERIES; i++) {
+                query(workspace, map, middle, out, i);
+            }
+            bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+            count = workspace.getAllocations() + out.getAllocations() - count;
+
+            // Reading the counter itself may allocate a little
+            boolean ok = count == 0 && bytes < 1024;
+            passed &= ok;
+            System.out.println(pattern + ": " + QUERIES + " queries, "
+                               + count + " allocations, " + bytes
+                               + " bytes " + (ok ? "OK" : "FAILED"));
+        }
+
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs one of the queries, alternating between the workspace's own
+     * buffer and a caller's buffer and between two end points.
+     *
+     * @param workspace The workspace.
+     * @param map The map.
+     * @param middle The point in the middle of the map.
+     * @param out The caller's buffer.
+     * @param i The number of the query.
+     */
+    private static void query(SearchWorkspace workspace, BenchMap map,
+                              Point2D middle, PathBuffer out, int i) {
+        Point2D end = (i & 2) == 0 ? map.end : middle;
+        if (end.equals(map.start)) {
+            end = map.end;
+        }
+
+        if ((i & 1) == 0) {
+            workspace.findPath(map.grid, map.start, end);
+        } else {
+            workspace.findPath(map.grid, map.start, end, out);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.syedraza.WaveFront.bench;
+
+import java.util.Random;
+
+import com.syedraza.WaveFront.FlatGrid;
+import com.syedraza.WaveFront.LinkedGrid;
+import com.syedraza.WaveFront.PathFinder;
+import com.syedraza.WaveFront.Point2D;
+
+/**
+ * A square map generated from a fixed seed, with a start and end point that
+ * are always open.
+ * <p>
+ * The same pattern, size and seed always give the same obstacles, so
+ * results can be compared between runs and machines.
+ */
+public final class BenchMap {
+    /** The seed used by the benchmarks. */
+    public static final long SEED = 0x5EEDL;
+    /** The width of the open square kept around each corner of random maps. */
+    private static final int CLEARING = 8;
+
+    /** The map. */
+    public final FlatGrid grid;
+    /** The start point, in one corner. */
+    public final Point2D start;
+    /** The end point, in the opposite corner. */
+    public final Point2D end;
+
+    /**
+     * Creates a map.
+     *
+     * @param grid The map.
+     * @param start The start point.
+     * @param end The end point.
+     */
+    private BenchMap(FlatGrid grid, Point2D start, Point2D end) {
+        this.grid = grid;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Generates a map.
+     *
+     * @param pattern The layout of the obstacles.
+     * @param size The number of rows and columns.
+     * @param seed The seed for the random parts of the layout.
+     * @return The map.
+     * @throws IllegalArgumentException If the size is less than 4.
+     */
+    public static BenchMap generate(Pattern pattern, int size, long seed) {
+        if (size < 4) {
+            throw new IllegalArgumentException("Invalid map size: " + size
+                                               + ".");
+        }
+
+        FlatGrid grid = new FlatGrid(size, size);
+        Random random = new Random(seed);
+        int last = size - 1;
+        switch (pattern) {
+            case OPEN:
+                break;
+            case RANDOM_15:
+                scatter(grid, random, 0.15);
+                break;
+            case RANDOM_30:
+                scatter(grid, random, 0.30);
+                break;
+            case MAZE:
+                carveMaze(grid, random);
+                // Maze cells lie on even coordinates
+                last = (size - 1) & ~1;
+                break;
+            case CORRIDORS:
+                buildCorridors(grid);
+                break;
+            default:
+                throw new AssertionError(pattern);
+        }
+
+        grid.setValue(0, 0, PathFinder.UNFILLED);
+        grid.setValue(last, last, PathFinder.UNFILLED);
+        return new BenchMap(grid, new Point2D(0, 0), new Point2D(last, last));
+    }
+
+    /**
+     * Blocks each cell with the given probability, except for a small square
+     * in each corner.
+     *
+     * @param grid The open grid.
+     * @param random The source of randomness.
+     * @param density The chance of a cell being blocked.
+     */
+    private static void scatter(FlatGrid grid, Random random,
+                                double density) {
+        int cells = grid.rows * grid.cols;
+        for (int i = 0; i < cells; i++) {
+            if (random.nextDouble() < density) {
+                grid.setValue(i, PathFinder.BLOCKED);
+            }
+        }
+
+        // Keep the corners open so the endpoints aren't walled in
+        int size = grid.rows;
+        int clearing = Math.min(CLEARING, size / 2);
+        for (int x = 0; x < clearing; x++) {
+            for (int y = 0; y < clearing; y++) {
+                grid.setValue(x, y, PathFinder.UNFILLED);
+                grid.setValue(size - 1 - x, size - 1 - y,
+                              PathFinder.UNFILLED);
+            }
+        }
+    }
+
+    /**
+     * Carves a perfect maze with a depth-first search, so there is exactly
+     * one path between any two cells and paths wind across the whole map.
+     * Cells lie on even coordinates, with the walls between them.
+     *
+     * @param grid The open grid.
+     * @param random The source of randomness.
+     */
+    private static void carveMaze(FlatGrid grid, Random random) {
+        int size = grid.rows;
+        int cells = size * size;
+        for (int i = 0; i < cells; i++) {
+            grid.setValue(i, PathFinder.BLOCKED);
+        }
+
+        int mazeSize = (size + 1) / 2;
+        int[] stack = new int[mazeSize * mazeSize];
+        int[] dx = {-1, 1, 0, 0};
+        int[] dy = {0, 0, -1, 1};
+        int[] order = {0, 1, 2, 3};
+        int top = 0;
+
+        stack[top++] = 0;
+        grid.setValue(0, 0, PathFinder.UNFILLED);
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int x = cell / mazeSize;
+            int y = cell % mazeSize;
+
+            // Shuffle the directions, then take the first unvisited one
+            for (int i = 3; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            int next = -1;
+            for (int direction : order) {
+                int nx = x + dx[direction];
+                int ny = y + dy[direction];
+                if (nx >= 0 && nx < mazeSize && ny >= 0 && ny < mazeSize
+                    && grid.isBlocked(nx * 2, ny * 2)) {
+                    grid.setValue(x + nx, y + ny, PathFinder.UNFILLED);
+                    grid.setValue(nx * 2, ny * 2, PathFinder.UNFILLED);
+                    next = nx * mazeSize + ny;
+                    break;
+                }
+            }
+
+            if (next == -1) {
+                top--;
+            } else {
+                stack[top++] = next;
+            }
+        }
+    }
+
+    /**
+     * Builds walls across every fourth row with a single gap at alternating
+     * ends, so the only path from one corner to the other snakes back and
+     * forth through every corridor.
+     *
+     * @param grid The open grid.
+     */
+    private static void buildCorridors(FlatGrid grid) {
+        int size = grid.rows;
+        boolean gapAtEnd = true;
+        for (int x = 3; x < size - 1; x += 4) {
+            int gap = gapAtEnd ? size - 1 : 0;
+            for (int y = 0; y < size; y++) {
+                if (y != gap) {
+                    grid.setValue(x, y, PathFinder.BLOCKED);
+                }
+            }
+            gapAtEnd = !gapAtEnd;
+        }
+    }
+
+    /**
+     * Copies the map's blocked cells into a grid of linked nodes.
+     *
+     * @return The linked grid.
+     */
+    public LinkedGrid toLinkedGrid() {
+        int rows = grid.getRows();
+        int cols = grid.getCols();
+        LinkedGrid linked = new LinkedGrid(rows, cols);
+        for (int i = 0; i < rows * cols; i++) {
+            if (grid.isBlocked(i)) {
+                linked.setValue(i, PathFinder.BLOCKED);
+            }
+        }
+
+        return linked;
+    }
+
+    /**
+     * The layouts of obstacles a map can be generated with.
+     */
+    public enum Pattern {
+        /** No obstacles. */
+        OPEN,
+        /** Each cell is blocked with a 15% chance. */
+        RANDOM_15,
+        /** Each cell is blocked with a 30% chance. */
+        RANDOM_30,
+        /** A perfect maze with corridors one cell wide. */
+        MAZE,
+        /** Full-width walls with gaps at alternating ends. */
+        CORRIDORS
+    }
+}
@@ -0,0 +1,53 @@
+package com.syedraza.WaveFront.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.syedraza.WaveFront.FlatGrid;
+import com.syedraza.WaveFront.LinkedGrid;
+
+/**
+ * Measures the cost of building a grid, which for a {@link LinkedGrid}
+ * includes allocating and linking a node per cell.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class GridBenchmark {
+    /** The number of rows and columns of the grid. */
+    @Param({"100", "512", "1024", "4096"})
+    public int size;
+
+    /**
+     * Builds a grid of linked nodes.
+     *
+     * @return The grid.
+     */
+    @Benchmark
+    public LinkedGrid linkedGrid() {
+        return new LinkedGrid(size, size);
+    }
+
+    /**
+     * Builds a flat grid, for comparison.
+     *
+     * @return The grid.
+     */
+    @Benchmark
+    public FlatGrid flatGrid() {
+        return new FlatGrid(size, size);
+    }
+}
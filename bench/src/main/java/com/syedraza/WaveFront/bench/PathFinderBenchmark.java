@@ -0,0 +1,190 @@
+package com.syedraza.WaveFront.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.syedraza.WaveFront.IndexedGrid;
+import com.syedraza.WaveFront.ObstacleMap;
+import com.syedraza.WaveFront.PathCursor;
+import com.syedraza.WaveFront.PathFinder;
+import com.syedraza.WaveFront.Point2D;
+
+/**
+ * Measures the parts of a {@link PathFinder} query: filling the distances,
+ * tracing the path, repairing after a change and moving the endpoints.
+ * <p>
+ * Each benchmark leaves the pathfinder as it found it, or alternates between
+ * two states, so every invocation does the same amount of work. The
+ * pathfinder either only reads the map, or also copies every distance into
+ * a {@link com.syedraza.WaveFront.FlatGrid} or the nodes of a
+ * {@link com.syedraza.WaveFront.LinkedGrid} like the GUI does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class PathFinderBenchmark {
+    /** The number of rows and columns of the map. */
+    @Param({"100", "512", "1024", "4096"})
+    public int size;
+
+    /** The layout of the map's obstacles. */
+    @Param({"OPEN", "RANDOM_15", "RANDOM_30", "MAZE", "CORRIDORS"})
+    public BenchMap.Pattern pattern;
+
+    /** The grid the pathfinder is created with. */
+    @Param({"MAP", "FLAT", "LINKED"})
+    public GridType gridType;
+
+    /** The map. */
+    private BenchMap map;
+    /** The grid whose cells are (un)blocked. */
+    private IndexedGrid cells;
+    /** The pathfinder over the map. */
+    private PathFinder finder;
+    /** A cell on the path that is (un)blocked by the update benchmark. */
+    private Point2D toggled;
+    /** Whether the toggled cell is currently blocked. */
+    private boolean blocked;
+    /** Another open point for the endpoints to move to. */
+    private Point2D other;
+    /** Whether the endpoint being moved is at the other point. */
+    private boolean moved;
+
+    /**
+     * Generates the map and finds the first path.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = BenchMap.generate(pattern, size, BenchMap.SEED);
+        switch (gridType) {
+            case MAP:
+                cells = map.grid;
+                finder = new PathFinder((ObstacleMap) cells, map.start,
+                                        map.end);
+                break;
+            case FLAT:
+                cells = map.grid;
+                finder = new PathFinder(cells, map.start, map.end);
+                break;
+            case LINKED:
+                cells = map.toLinkedGrid();
+                finder = new PathFinder(cells, map.start, map.end);
+                break;
+            default:
+                throw new AssertionError(gridType);
+        }
+
+        // Use points along the path, so changes to them always matter
+        toggled = pointAlongPath(2);
+        other = pointAlongPath(4);
+    }
+
+    /**
+     * Finds a point part of the way along the current path, or the center of
+     * the map if the end can't be reached.
+     *
+     * @param divisor The fraction of the path to skip, as its reciprocal.
+     * @return The point.
+     */
+    private Point2D pointAlongPath(int divisor) {
+        PathCursor cursor = finder.getPathCursor();
+        int steps = cursor.length() / divisor;
+        if (!cursor.isReachable() || steps == 0) {
+            return new Point2D(size / 2, size / 2);
+        }
+
+        for (int i = 0; i <= steps; i++) {
+            cursor.nextInt();
+        }
+
+        return new Point2D(cursor.getX(), cursor.getY());
+    }
+
+    /**
+     * Refills every distance from scratch.
+     *
+     * @return The length of the path.
+     */
+    @Benchmark
+    public int fill() {
+        finder.update();
+        return finder.getPathLength();
+    }
+
+    /**
+     * Traces the whole path from the distances into an array of points.
+     *
+     * @return The path.
+     */
+    @Benchmark
+    public Point2D[] traverse() {
+        finder.setStart(map.start);
+        return finder.getPath();
+    }
+
+    /**
+     * Blocks or unblocks a cell in the middle of the path and repairs only
+     * the distances that depend on it.
+     *
+     * @return The length of the path.
+     */
+    @Benchmark
+    public int update() {
+        blocked = !blocked;
+        cells.setValue(toggled.getX() * size + toggled.getY(),
+                       blocked ? PathFinder.BLOCKED : PathFinder.UNFILLED);
+        finder.update(toggled);
+        return finder.getPathLength();
+    }
+
+    /**
+     * Moves the start point, which only needs the path traced again.
+     *
+     * @return The path.
+     */
+    @Benchmark
+    public Point2D[] moveStart() {
+        moved = !moved;
+        finder.setStart(moved ? other : map.start);
+        return finder.getPath();
+    }
+
+    /**
+     * Moves the end point, which needs every distance refilled.
+     *
+     * @return The length of the path.
+     */
+    @Benchmark
+    public int moveEnd() {
+        moved = !moved;
+        finder.setEnd(moved ? other : map.end);
+        return finder.getPathLength();
+    }
+
+    /**
+     * The grids a pathfinder can be created with.
+     */
+    public enum GridType {
+        /** A flat grid only read as an obstacle map, with nothing copied. */
+        MAP,
+        /** A flat grid that every distance is copied into. */
+        FLAT,
+        /** A linked grid whose nodes every distance is copied into. */
+        LINKED
+    }
+}
@@ -0,0 +1,185 @@
+package com.syedraza.WaveFront;
+
+import java.util.Arrays;
+
+/**
+ * Finds the shortest path between two points with the A* algorithm.
+ * <p>
+ * Cells are expanded in order of their distance from the start point plus a
+ * {@link Heuristic} estimate of their distance to the end point, so only the
+ * cells that could lie on a shortest path are expanded instead of every
+ * reachable cell. Cells with the same estimate are expanded closest to the
+ * end point first, then in order of their index, so the same query always
+ * returns the same path.
+ * <p>
+ * The heuristic is given reused points, so it must not keep references to
+ * them.
+ */
+public class AStarPathFinder extends AbstractPathFinder {
+    /** The heuristic used to estimate distances to the end point. */
+    private final Heuristic heuristic;
+    /** The cells waiting to be expanded. */
+    private final IntHeap open;
+    /** The query number each cell was last reached in. */
+    private final int[] reached;
+    /** The distance of each reached cell from the start point. */
+    private final int[] distances;
+    /** The cell each cell was reached from. */
+    private final int[] parents;
+    /** A reused point for the cell being estimated. */
+    private final Point2D from = new Point2D();
+    /** A reused point for the end cell. */
+    private final Point2D to = new Point2D();
+    /** The number of the current query. */
+    private int query;
+
+    /**
+     * Creates a pathfinder using the Manhattan distance as its heuristic and
+     * finds the path between the given points.
+     *
+     * @param map The map to read blocked cells from.
+     * @param start The start point inside the map different from the end.
+     * @param end The end point inside the map different from the start.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public AStarPathFinder(ObstacleMap map, Point2D start, Point2D end) {
+        this(map, start, end, Heuristic.MANHATTAN);
+    }
+
+    /**
+     * Creates a pathfinder using the given heuristic and finds the path
+     * between the given points.
+     *
+     * @param map The map to read blocked cells from.
+     * @param start The start point inside the map different from the end.
+     * @param end The end point inside the map different from the start.
+     * @param heuristic The heuristic to estimate distances with. The path is
+     *                  only guaranteed to be the shortest if the heuristic
+     *                  never overestimates.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public AStarPathFinder(ObstacleMap map, Point2D start, Point2D end,
+                           Heuristic heuristic) {
+        super(map, start, end);
+
+        if (heuristic == null) {
+            throw new NullPointerException("The heuristic is null.");
+        }
+
+        int cells = rows * cols;
+        this.heuristic = heuristic;
+        open = new IntHeap(cells);
+        reached = new int[cells];
+        distances = new int[cells];
+        parents = new int[cells];
+
+        update();
+    }
+
+    @Override
+    protected boolean search(int startIndex, int endIndex, PathBuffer out) {
+        if (query == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            query = 0;
+        }
+        query++;
+
+        open.clear();
+        to.setX(endIndex / cols);
+        to.setY(endIndex % cols);
+        reach(startIndex, -1, 0, endIndex);
+
+        while (!open.isEmpty()) {
+            int index = open.poll();
+            if (index == endIndex) {
+                buildPath(endIndex, out);
+                return true;
+            }
+
+            expanded++;
+
+            int x = index / cols;
+            int y = index % cols;
+            int distance = distances[index] + 1;
+            if (y != cols - 1) {
+                relax(index, index + 1, distance, endIndex);    // North
+            }
+
+            if (y != 0) {
+                relax(index, index - 1, distance, endIndex);    // South
+            }
+
+            if (x != rows - 1) {
+                relax(index, index + cols, distance, endIndex); // East
+            }
+
+            if (x != 0) {
+                relax(index, index - cols, distance, endIndex); // West
+            }
+        }
+
+        out.add(startIndex / cols, startIndex % cols);
+        return false;
+    }
+
+    /**
+     * Reaches a neighbor of an expanded cell if it is open and the new route
+     * to it is shorter than any found before.
+     *
+     * @param index The index of the expanded cell.
+     * @param neighbor The index of the neighbor.
+     * @param distance The distance of the neighbor through the expanded cell.
+     * @param endIndex The index of the end cell, which may be blocked.
+     */
+    private void relax(int index, int neighbor, int distance, int endIndex) {
+        if (map.isBlocked(neighbor) && neighbor != endIndex) {
+            return;
+        }
+
+        if (reached[neighbor] != query || distance < distances[neighbor]) {
+            // An expanded cell is reopened if a custom heuristic let a
+            // longer route reach it first
+            reach(neighbor, index, distance, endIndex);
+        }
+    }
+
+    /**
+     * Records the route to a cell and queues it for expansion.
+     *
+     * @param index The index of the cell.
+     * @param parent The index of the cell it was reached from.
+     * @param distance The distance of the cell from the start point.
+     * @param endIndex The index of the end cell.
+     */
+    private void reach(int index, int parent, int distance, int endIndex) {
+        from.setX(index / cols);
+        from.setY(index % cols);
+        int estimate = heuristic.estimate(from, to);
+
+        reached[index] = query;
+        distances[index] = distance;
+        parents[index] = parent;
+
+        // Order by total estimate, then by closeness to the end point
+        open.add(index, IntHeap.priority(distance + estimate, estimate));
+    }
+
+    /**
+     * Follows the recorded routes back from the end cell to the start.
+     *
+     * @param endIndex The index of the end cell.
+     * @param out The buffer to store the path in.
+     */
+    private void buildPath(int endIndex, PathBuffer out) {
+        for (int index = endIndex; index != -1; index = parents[index]) {
+            out.add(index / cols, index % cols);
+        }
+        out.reverse();
+    }
+}
@@ -0,0 +1,269 @@
+package com.syedraza.WaveFront;
+
+/**
+ * The shared parts of the pathfinders that search an {@link ObstacleMap}
+ * directly between two points instead of filling a whole
+ * {@link DistanceField} like a {@link PathFinder}.
+ * <p>
+ * Subclasses implement {@link #search(int, int, PathBuffer)} and must call
+ * {@link #update()} at the end of their constructors, once their own state
+ * has been set up. The map is only read from, so it may be shared with
+ * other pathfinders running on other threads as long as it isn't modified.
+ * <p>
+ * Passing {@code null} parameters will throw a {@code NullPointerException}.
+ */
+public abstract class AbstractPathFinder implements Navigation {
+    /** The map to read blocked cells from. */
+    protected final ObstacleMap map;
+    /** The number of rows in the map. */
+    protected final int rows;
+    /** The number of columns in the map. */
+    protected final int cols;
+    /** The start point. */
+    private Point2D start;
+    /** The end point. */
+    private Point2D end;
+    /** The calculated path. */
+    private final PathBuffer path;
+    /** Whether the last search reached the end point. */
+    private boolean found;
+    /** The number of cells expanded by the last search. */
+    protected long expanded;
+
+    /**
+     * Sets up a pathfinder with the given map and points. The path isn't
+     * calculated until {@link #update()} is called.
+     *
+     * @param map The map to read blocked cells from.
+     * @param start The start point inside the map different from the end.
+     * @param end The end point inside the map different from the start.
+     */
+    protected AbstractPathFinder(ObstacleMap map, Point2D start,
+                                 Point2D end) {
+        if (map == null) {
+            throw new NullPointerException("The passed in map is null.");
+        }
+
+        this.map = map;
+        rows = map.getRows();
+        cols = map.getCols();
+        this.start = start;
+        this.end = end;
+        path = new PathBuffer();
+    }
+
+    /**
+     * Searches for a path between two cells.
+     *
+     * @param startIndex The index of the start cell.
+     * @param endIndex The index of the end cell.
+     * @param out The buffer to store the path in, which has been cleared. If
+     *            no path is found, it should be left holding only the start
+     *            point.
+     * @return true if a path was found.
+     */
+    protected abstract boolean search(int startIndex, int endIndex,
+                                      PathBuffer out);
+
+    /**
+     * Calculates the path from the start point to the end.
+     *
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same.
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    private void calculatePath() {
+        // Run some checks
+        if (start == null || end == null) {
+            throw new NullPointerException("The start or end point is null.");
+        }
+
+        if (start.equals(end)) {
+            throw new IllegalArgumentException("End point is the same as the"
+                                               + " start point.");
+        }
+
+        if (!pointInRange(start) || !pointInRange(end)) {
+            throw new IndexOutOfBoundsException("Start or end points outside"
+                                                + " of grid range.");
+        }
+
+        expanded = 0;
+        path.clear();
+        int startIndex = indexOf(start);
+        if (map.isBlocked(startIndex)) {
+            // Nothing can be reached from a blocked start
+            path.add(start.getX(), start.getY());
+            found = false;
+        } else {
+            found = search(startIndex, indexOf(end), path);
+        }
+    }
+
+    /**
+     * Determines if a 2D point is in the range of the map.
+     *
+     * @param p The point.
+     * @return true if the coordinates of the point are in the range.
+     */
+    protected boolean pointInRange(Point2D p) {
+        int x = p.getX();
+        int y = p.getY();
+
+        return x >= 0 && x < rows && y >= 0 && y < cols;
+    }
+
+    /**
+     * Returns the index of the cell at the given point.
+     *
+     * @param p The point.
+     * @return The index of the cell.
+     */
+    protected int indexOf(Point2D p) {
+        return p.getX() * cols + p.getY();
+    }
+
+    /**
+     * Updates the start node. This recalculates the path.
+     *
+     * @param start The new starting point.
+     * @throws IllegalArgumentException If the start point is the same as the
+     *         end.
+     * @throws IndexOutOfBoundsException If the start point is outside of the
+     *         map.
+     */
+    public void setStart(Point2D start) {
+        this.start = start;
+        calculatePath();
+    }
+
+    /**
+     * Updates the end node. This recalculates the path.
+     *
+     * @param end The new ending point.
+     * @throws IllegalArgumentException If the end point is the same as the
+     *         start.
+     * @throws IndexOutOfBoundsException If the end point is outside of the
+     *         map.
+     */
+    public void setEnd(Point2D end) {
+        this.end = end;
+        calculatePath();
+    }
+
+    /**
+     * Updates the path to reflect changes in the map. Must be called when
+     * (un)blocking any cells.
+     */
+    public void update() {
+        calculatePath();
+    }
+
+    /**
+     * Returns the start point used by the pathfinder.
+     *
+     * @return The start point.
+     */
+    public Point2D getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the end point used by the pathfinder.
+     *
+     * @return The end point.
+     */
+    public Point2D getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the map that the pathfinder was created with.
+     *
+     * @return The map.
+     */
+    public ObstacleMap getMap() {
+        return map;
+    }
+
+    /**
+     * Determines if the last search found a path to the end point.
+     *
+     * @return true if the end point is reachable.
+     */
+    public boolean isReachable() {
+        return found;
+    }
+
+    /**
+     * Returns the number of cells the last search expanded, which can be
+     * compared between pathfinders to see how much work each one did.
+     *
+     * @return The number of expanded cells.
+     */
+    public long getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Returns the path that was calculated from start to end without copying
+     * it. The buffer is overwritten when the path is recalculated.
+     *
+     * @return The path buffer.
+     */
+    public PathBuffer getPathBuffer() {
+        return path;
+    }
+
+    /**
+     * Returns the path that was calculated from start to end. If a suitable
+     * path couldn't be found, only the start point will be included.
+     *
+     * @return The path of 2D points.
+     */
+    @Override
+    public Point2D[] getPath() {
+        return path.toArray();
+    }
+
+    /**
+     * Returns the path that was calculated from start to end as packed cell
+     * indices, which take far less memory than an array of points.
+     *
+     * @return The path. If a suitable path couldn't be found, only the start
+     *         point will be included.
+     */
+    public PrimitivePath getPrimitivePath() {
+        return PrimitivePath.of(path, cols);
+    }
+
+    /**
+     * Returns only the points needed to follow the calculated path, as
+     * described by {@link Waypoints}.
+     *
+     * @param smooth Whether to cut corners wherever there is a clear line of
+     *               sight, instead of keeping every turn.
+     * @return The waypoints of the path.
+     */
+    public Point2D[] getWaypoints(boolean smooth) {
+        PathBuffer waypoints = new PathBuffer();
+        if (smooth) {
+            Waypoints.smooth(map, path, waypoints);
+        } else {
+            Waypoints.compress(path, waypoints);
+        }
+
+        return waypoints.toArray();
+    }
+
+    /**
+     * Returns a string representation of the path that was determined.
+     *
+     * @return The comma-delimited points of the path.
+     */
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+}
@@ -0,0 +1,227 @@
+package com.syedraza.WaveFront;
+
+import java.util.List;
+
+/**
+ * Finds many paths that share an endpoint with a single wavefront fill.
+ * <p>
+ * A {@link DistanceField} filled from one point holds the distance of every
+ * cell from it, so the paths from any number of other points to that point
+ * only cost one traversal each. Paths are written into a shared
+ * {@link PathSet}, and points that can't reach the shared endpoint are
+ * reported together instead of as separate one-point paths.
+ * <p>
+ * Blocked points follow the same rules as a {@link PathFinder} in both
+ * directions: a blocked end point is entered from its nearest open
+ * neighbor, while a blocked start point can't reach anything but itself.
+ * <p>
+ * A batch pathfinder reuses its field between batches, so it must only be
+ * used by one thread at a time. The map is only read from.
+ */
+public class BatchPathFinder {
+    /** The map to read blocked cells from. */
+    private final ObstacleMap map;
+    /** The field filled from the shared endpoint. */
+    private final DistanceField field;
+    /** The buffer each path is traced into before being added to a set. */
+    private final PathBuffer trace;
+
+    /**
+     * Creates a batch pathfinder for the given map.
+     *
+     * @param map The map to read blocked cells from.
+     */
+    public BatchPathFinder(ObstacleMap map) {
+        if (map == null) {
+            throw new NullPointerException("The passed in map is null.");
+        }
+
+        this.map = map;
+        field = new DistanceField(map.getRows(), map.getCols());
+        trace = new PathBuffer();
+    }
+
+    /**
+     * Finds the paths from many start points to one end point.
+     *
+     * @param starts The start points inside the map.
+     * @param end The end point inside the map.
+     * @return The paths, in the same order as the start points.
+     * @throws IndexOutOfBoundsException If a point is outside of the map.
+     */
+    public PathSet findPaths(List<Point2D> starts, Point2D end) {
+        PathSet paths = new PathSet();
+        findPaths(starts, end, paths);
+        return paths;
+    }
+
+    /**
+     * Finds the paths from many start points to one end point, storing them
+     * in the given set.
+     *
+     * @param starts The start points inside the map.
+     * @param end The end point inside the map.
+     * @param out The set to store the paths in, in the same order as the
+     *            start points. It is cleared first. A start point equal to the
+     *            end point has a path of just that point, and a blocked start
+     *            point has no path.
+     * @throws IndexOutOfBoundsException If a point is outside of the map.
+     */
+    public void findPaths(List<Point2D> starts, Point2D end, PathSet out) {
+        checkRange(end);
+        for (Point2D start : starts) {
+            checkRange(start);
+        }
+
+        field.fill(map, end);
+        out.clear();
+        for (Point2D start : starts) {
+            addPath(start, out, false);
+        }
+    }
+
+    /**
+     * Finds the paths from one start point to many end points.
+     *
+     * @param start The start point inside the map.
+     * @param ends The end points inside the map.
+     * @return The paths, in the same order as the end points.
+     * @throws IndexOutOfBoundsException If a point is outside of the map.
+     */
+    public PathSet findPaths(Point2D start, List<Point2D> ends) {
+        PathSet paths = new PathSet();
+        findPaths(start, ends, paths);
+        return paths;
+    }
+
+    /**
+     * Finds the paths from one start point to many end points, storing them
+     * in the given set.
+     * <p>
+     * The field is filled from the start point and each path is traced from
+     * its end point, then reversed. A blocked end point isn't filled, so its
+     * path is traced from its nearest open neighbor and steps into it.
+     *
+     * @param start The start point inside the map.
+     * @param ends The end points inside the map.
+     * @param out The set to store the paths in, in the same order as the end
+     *            points. It is cleared first. An end point equal to the start
+     *            point has a path of just that point. If the start point is
+     *            blocked, no other end point has a path.
+     * @throws IndexOutOfBoundsException If a point is outside of the map.
+     */
+    public void findPaths(Point2D start, List<Point2D> ends, PathSet out) {
+        checkRange(start);
+        for (Point2D end : ends) {
+            checkRange(end);
+        }
+
+        field.fill(map, start);
+        out.clear();
+        for (Point2D end : ends) {
+            addPath(end, out, true);
+        }
+    }
+
+    /**
+     * Traces the path from a point to the field's root and adds it to a set.
+     *
+     * @param from The point to trace from.
+     * @param out The set to add the path to.
+     * @param reversed Whether the path should be added root first.
+     */
+    private void addPath(Point2D from, PathSet out, boolean reversed) {
+        addPath(map, field, trace, from, out, reversed);
+    }
+
+    /**
+     * Traces the path from a point to the root of a filled field and adds it
+     * to a set, so other batch queries can share the rules for blocked and
+     * unreachable points.
+     *
+     * @param map The map the field was filled from.
+     * @param field The filled field.
+     * @param trace The buffer to trace the path into.
+     * @param from The point to trace from.
+     * @param out The set to add the path to.
+     * @param reversed Whether the path should be added root first.
+     */
+    static void addPath(ObstacleMap map, DistanceField field, PathBuffer trace,
+                        Point2D from, PathSet out, boolean reversed) {
+        int index = from.getX() * field.getCols() + from.getY();
+        int root = field.getEnd();
+        int start = reversed ? root : index;
+        if (index != root && map.isBlocked(start)) {
+            // A blocked start can't go anywhere
+            out.addUnreachable();
+        } else if (index != root && map.isBlocked(index)) {
+            if (traceIntoBlocked(field, trace, index)) {
+                out.add(trace, false);
+            } else {
+                out.addUnreachable();
+            }
+        } else if (field.trace(index, trace)) {
+            out.add(trace, reversed);
+        } else {
+            out.addUnreachable();
+        }
+    }
+
+    /**
+     * Traces the path from the root of a filled field to a blocked end cell,
+     * which the fill didn't reach, through the end cell's nearest open
+     * neighbor.
+     *
+     * @param field The filled field.
+     * @param trace The buffer to store the path in, root first.
+     * @param index The index of the blocked end cell.
+     * @return true if a neighbor of the end cell was reached.
+     */
+    private static boolean traceIntoBlocked(DistanceField field,
+                                            PathBuffer trace, int index) {
+        int rows = field.getRows();
+        int cols = field.getCols();
+        int x = index / cols;
+        int y = index % cols;
+
+        // Check the neighbors in the same order as DistanceField.getNext
+        int best = -1;
+        int bestValue = Integer.MAX_VALUE;
+        int[] neighbors = {y != cols - 1 ? index + 1 : -1,
+                           y != 0 ? index - 1 : -1,
+                           x != 0 ? index - cols : -1,
+                           x != rows - 1 ? index + cols : -1};
+        for (int neighbor : neighbors) {
+            if (neighbor != -1) {
+                int value = field.getValue(neighbor);
+                if (value != PathFinder.UNFILLED && value < bestValue) {
+                    best = neighbor;
+                    bestValue = value;
+                }
+            }
+        }
+
+        if (best == -1 || !field.trace(best, trace)) {
+            return false;
+        }
+
+        trace.reverse();
+        trace.add(x, y);
+        return true;
+    }
+
+    /**
+     * Makes sure a point is inside of the map.
+     *
+     * @param p The point.
+     * @throws IndexOutOfBoundsException If the point is outside of the map.
+     */
+    private void checkRange(Point2D p) {
+        int x = p.getX();
+        int y = p.getY();
+        if (x < 0 || x >= map.getRows() || y < 0 || y >= map.getCols()) {
+            throw new IndexOutOfBoundsException("Point " + p + " outside of"
+                                                + " grid range.");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.syedraza.WaveFront;
+
+import java.util.Arrays;
+
+/**
+ * Finds the shortest path between two points by growing breadth-first
+ * frontiers from both the start and the end point until they meet.
+ * <p>
+ * A {@link PathFinder} fills every reachable cell from the end point, so its
+ * cost grows with the size of the map. This pathfinder stops as soon as the
+ * frontiers meet, so its cost grows with the length of the path instead,
+ * while still returning a path as short as the one a PathFinder would.
+ * Each step the smaller frontier is expanded by one whole level, and the
+ * best meeting found during that level is used.
+ * <p>
+ * Cells are marked with a query number instead of being cleared, so a
+ * search only touches the cells it visits.
+ */
+public class BidirectionalPathFinder extends AbstractPathFinder {
+    /** The query number each cell was last visited in, and by which side. */
+    private final int[] visited;
+    /** The cell each cell was reached from. */
+    private final int[] parents;
+    /** The distance of each cell from the side that reached it. */
+    private final int[] distances;
+    /** The frontier grown from the start point. */
+    private final IntQueue startQueue;
+    /** The frontier grown from the end point. */
+    private final IntQueue endQueue;
+    /** The number of the current query. */
+    private int query;
+    /** The first cell of the best meeting found so far. */
+    private int meetFrom;
+    /** The second cell of the best meeting found so far. */
+    private int meetTo;
+    /** The length of the best meeting found so far. */
+    private int meetLength;
+
+    /**
+     * Creates a pathfinder with the given map and points and finds the path
+     * between them.
+     *
+     * @param map The map to read blocked cells from.
+     * @param start The start point inside the map different from the end.
+     * @param end The end point inside the map different from the start.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public BidirectionalPathFinder(ObstacleMap map, Point2D start,
+                                   Point2D end) {
+        super(map, start, end);
+
+        int cells = rows * cols;
+        visited = new int[cells];
+        parents = new int[cells];
+        distances = new int[cells];
+        startQueue = new IntQueue(64);
+        endQueue = new IntQueue(64);
+
+        update();
+    }
+
+    @Override
+    protected boolean search(int startIndex, int endIndex, PathBuffer out) {
+        if (query >= Integer.MAX_VALUE / 2 - 1) {
+            Arrays.fill(visited, 0);
+            query = 0;
+        }
+        query++;
+
+        int startMark = 2 * query;
+        int endMark = startMark + 1;
+        startQueue.clear();
+        endQueue.clear();
+        visit(startIndex, startMark, -1, 0, startQueue);
+        visit(endIndex, endMark, -1, 0, endQueue);
+
+        while (!startQueue.isEmpty() && !endQueue.isEmpty()) {
+            boolean fromStart = startQueue.size() <= endQueue.size();
+            if (fromStart) {
+                expandLevel(startQueue, startMark, endMark);
+            } else {
+                expandLevel(endQueue, endMark, startMark);
+            }
+
+            if (meetFrom != -1) {
+                if (fromStart) {
+                    buildPath(meetFrom, meetTo, out);
+                } else {
+                    buildPath(meetTo, meetFrom, out);
+                }
+
+                return true;
+            }
+        }
+
+        out.add(startIndex / cols, startIndex % cols);
+        return false;
+    }
+
+    /**
+     * Expands every cell in one level of a frontier, recording the shortest
+     * meeting with the other frontier.
+     *
+     * @param queue The frontier to expand.
+     * @param mark The mark of the side being expanded.
+     * @param otherMark The mark of the other side.
+     */
+    private void expandLevel(IntQueue queue, int mark, int otherMark) {
+        meetFrom = -1;
+        meetLength = Integer.MAX_VALUE;
+
+        int cellsToExpand = queue.size();
+        while (cellsToExpand != 0) {
+            int index = queue.poll();
+            int x = index / cols;
+            int y = index % cols;
+            expanded++;
+
+            if (y != cols - 1) {
+                expandTo(index, index + 1, mark, otherMark, queue);    // North
+            }
+
+            if (y != 0) {
+                expandTo(index, index - 1, mark, otherMark, queue);    // South
+            }
+
+            if (x != rows - 1) {
+                expandTo(index, index + cols, mark, otherMark, queue); // East
+            }
+
+            if (x != 0) {
+                expandTo(index, index - cols, mark, otherMark, queue); // West
+            }
+
+            cellsToExpand--;
+        }
+    }
+
+    /**
+     * Visits a neighbor of an expanded cell, or records a meeting if the
+     * other side has already visited it.
+     *
+     * @param index The index of the expanded cell.
+     * @param neighbor The index of the neighbor.
+     * @param mark The mark of the side being expanded.
+     * @param otherMark The mark of the other side.
+     * @param queue The frontier to add the neighbor to.
+     */
+    private void expandTo(int index, int neighbor, int mark, int otherMark,
+                          IntQueue queue) {
+        int neighborMark = visited[neighbor];
+        if (neighborMark == otherMark) {
+            int length = distances[index] + 1 + distances[neighbor];
+            if (length < meetLength) {
+                meetLength = length;
+                meetFrom = index;
+                meetTo = neighbor;
+            }
+        } else if (neighborMark != mark && !map.isBlocked(neighbor)) {
+            visit(neighbor, mark, index, distances[index] + 1, queue);
+        }
+    }
+
+    /**
+     * Marks a cell as visited by one side and adds it to that side's
+     * frontier.
+     *
+     * @param index The index of the cell.
+     * @param mark The mark of the side visiting the cell.
+     * @param parent The index of the cell it was reached from.
+     * @param distance The distance of the cell from the side's root.
+     * @param queue The frontier to add the cell to.
+     */
+    private void visit(int index, int mark, int parent, int distance,
+                       IntQueue queue) {
+        visited[index] = mark;
+        parents[index] = parent;
+        distances[index] = distance;
+        queue.add(index);
+    }
+
+    /**
+     * Joins the two halves of a path at the cells where they met.
+     *
+     * @param startSide The meeting cell reached from the start point.
+     * @param endSide The meeting cell reached from the end point.
+     * @param out The buffer to store the path in.
+     */
+    private void buildPath(int startSide, int endSide, PathBuffer out) {
+        for (int index = startSide; index != -1; index = parents[index]) {
+            out.add(index / cols, index % cols);
+        }
+        out.reverse();
+
+        for (int index = endSide; index != -1; index = parents[index]) {
+            out.add(index / cols, index % cols);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.syedraza.WaveFront;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A monotone priority queue of cells for small integer edge costs, also
+ * known as Dial's buckets.
+ * <p>
+ * When every cost is between 1 and {@code maxCost}, the queued priorities
+ * all lie within {@code maxCost} of the lowest one, so a ring of
+ * {@code maxCost + 1} FIFO buckets indexed by priority is enough to keep
+ * them in order. Adding and polling are constant time instead of the
+ * logarithmic time of a heap. A cell whose priority is lowered is simply
+ * added again; the caller skips the stale entry when it is polled.
+ */
+final class BucketQueue {
+    /** The buckets, indexed by priority modulo their count. */
+    private final IntQueue[] buckets;
+    /** The priority of the bucket being polled. */
+    private int current;
+    /** The number of cells in the queue. */
+    private int size;
+
+    /**
+     * Creates an empty queue for the given highest edge cost.
+     *
+     * @param maxCost The highest cost of a single step.
+     */
+    BucketQueue(int maxCost) {
+        buckets = new IntQueue[maxCost + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new IntQueue(64);
+        }
+    }
+
+    /**
+     * Returns the highest edge cost the queue can hold.
+     *
+     * @return The highest cost.
+     */
+    int getMaxCost() {
+        return buckets.length - 1;
+    }
+
+    /**
+     * Empties the queue and sets the lowest priority it will be given.
+     *
+     * @param priority The lowest priority.
+     */
+    void clear(int priority) {
+        for (IntQueue bucket : buckets) {
+            bucket.clear();
+        }
+        current = priority;
+        size = 0;
+    }
+
+    /**
+     * Adds a cell to the queue.
+     *
+     * @param cell The index of the cell.
+     * @param priority The priority, no lower than that of the last polled
+     *                 cell and no more than the highest cost above it.
+     */
+    void add(int cell, int priority) {
+        buckets[priority % buckets.length].add(cell);
+        size++;
+    }
+
+    /**
+     * Removes and returns a cell with the lowest priority. Its priority can
+     * then be read with {@link #getPriority()}.
+     *
+     * @return The index of the cell.
+     * @throws NoSuchElementException If the queue is empty.
+     */
+    int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("The queue is empty.");
+        }
+
+        IntQueue bucket = buckets[current % buckets.length];
+        while (bucket.isEmpty()) {
+            current++;
+            bucket = buckets[current % buckets.length];
+        }
+        size--;
+
+        return bucket.poll();
+    }
+
+    /**
+     * Returns the priority of the last polled cell.
+     *
+     * @return The priority.
+     */
+    int getPriority() {
+        return current;
+    }
+
+    /**
+     * Returns the number of cells in the queue, including stale entries.
+     *
+     * @return The size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Determines if the queue has no cells.
+     *
+     * @return true if the queue is empty.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.syedraza.WaveFront;
+
+/**
+ * An {@link ObstacleMap} whose open cells can cost more than one step to
+ * enter, such as ramps or congested aisles.
+ * <p>
+ * A {@link DistanceField} filled from a cost map holds the cheapest total
+ * cost of reaching the end point from each cell instead of the number of
+ * steps. Maps whose costs are all 1 are filled by the ordinary wavefront.
+ * Costs are used by everything that plans with a distance field, such as a
+ * {@link PathFinder} or {@link BatchPathFinder}; the other pathfinders only
+ * read the blocked cells.
+ */
+public interface CostMap extends ObstacleMap {
+    /**
+     * Returns the cost of stepping into the cell at the given index.
+     *
+     * @param index The index of the cell.
+     * @return The cost, at least 1.
+     */
+    int getCost(int index);
+
+    /**
+     * Returns the highest cost of any cell in the map.
+     *
+     * @return The highest cost, or 1 if every cell costs the same.
+     */
+    int getMaxCost();
+}
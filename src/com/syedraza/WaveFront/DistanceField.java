@@ -0,0 +1,872 @@
+package com.syedraza.WaveFront;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The distance of every cell of a map from an end point, as calculated by
+ * the wavefront algorithm.
+ * <p>
+ * A field holds the state of a single query separately from the
+ * {@link ObstacleMap} it was filled from, so many fields can be filled from
+ * one shared map at the same time. Values follow the same convention as a
+ * filled grid: unreachable cells are {@link PathFinder#UNFILLED} and the end
+ * point has the value {@code PathFinder.BLOCKED + 1}, with each step away
+ * from it adding one. A field can be refilled as many times as needed
+ * without allocating.
+ * <p>
+ * After cells of the map are (un)blocked, a filled field can be repaired
+ * with {@link #repair(ObstacleMap, int...)} instead of being refilled. Only
+ * the cells whose distances depend on the changed cells are visited.
+ * <p>
+ * When a field is filled from a {@link CostMap} whose cells don't all cost
+ * the same, each value is instead the cheapest total cost of stepping from
+ * the cell to the end point, and the field is filled by Dijkstra's algorithm
+ * over a {@link BucketQueue}. Paths follow the cheapest steps, and repairs
+ * take the costs into account.
+ * <p>
+ * Each fill and repair records how many cells it expanded and the most cells
+ * that were waiting to be expanded at once, which show how much of the map a
+ * query had to search.
+ */
+public class DistanceField {
+    /** The distance values, indexed by {@code x * cols + y}. */
+    private final int[] values;
+    /** The cells waiting to be filled, created by the first fill. */
+    private IntQueue fillQueue;
+    /** The number of rows in the field. */
+    private final int rows;
+    /** The number of columns in the field. */
+    private final int cols;
+    /** The index of the end point the field was last filled from. */
+    private int end = -1;
+    /** The cells waiting to be repaired, created by the first repair. */
+    private IntHeap repairQueue;
+    /** The distance each cell waiting to be repaired should have. */
+    private int[] targets;
+    /** The cells whose values changed during the last repair. */
+    private int[] repaired = new int[16];
+    /** The number of cells whose values changed during the last repair. */
+    private int repairedCount;
+    /** The costs the field was filled with, or {@code null} if uniform. */
+    private CostMap costs;
+    /** The cells waiting to be filled by a weighted fill. */
+    private BucketQueue bucketQueue;
+    /** The number of cells expanded by the last fill or repair. */
+    private int expandedCount;
+    /** The most cells waiting at once during the last fill or repair. */
+    private int frontierPeak;
+
+    /** The value used for unreachable cells while repairing. */
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    /**
+     * The number of cells a field needs before a parallel fill is used.
+     * Smaller fields are filled faster by a single thread.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 20;
+    /** The number of frontier cells each parallel task expands. */
+    private static final int CHUNK_SIZE = 4096;
+
+    /**
+     * Creates an unfilled field of the specified size.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     */
+    public DistanceField(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        values = new int[rows * cols];
+    }
+
+    /**
+     * Fills the field with the distance of each cell from the end point.
+     *
+     * @param map The map to read blocked cells from.
+     * @param end The end point.
+     * @throws IllegalArgumentException If the map isn't the same size as the
+     *         field.
+     */
+    public void fill(ObstacleMap map, Point2D end) {
+        fill(map, end.getX() * cols + end.getY());
+    }
+
+    /**
+     * Fills the field with the distance of each cell from the end cell.
+     * Cells are filled in a wave pattern since neighboring cells will be
+     * equidistant. If the map is a {@link CostMap} with differing costs, the
+     * field is filled with costs instead.
+     *
+     * @param map The map to read blocked cells from.
+     * @param endIndex The index of the end cell.
+     * @throws IllegalArgumentException If the map isn't the same size as the
+     *         field.
+     */
+    public void fill(ObstacleMap map, int endIndex) {
+        if (map.getRows() != rows || map.getCols() != cols) {
+            throw new IllegalArgumentException("The map and field sizes"
+                                               + " differ.");
+        }
+
+        costs = weightedCosts(map);
+        if (costs != null) {
+            fillWeighted(endIndex);
+            return;
+        }
+
+        if (fillQueue == null) {
+            fillQueue = new IntQueue(rows * cols);
+        }
+
+        Arrays.fill(values, PathFinder.UNFILLED);
+        fillQueue.clear();
+        end = endIndex;
+
+        // A cell's value doubles as the mark that it has been queued
+        values[endIndex] = PathFinder.BLOCKED + 1;
+        fillQueue.add(endIndex);
+        int expanded = 0;
+        int peak = 0;
+        while (!fillQueue.isEmpty()) {
+            peak = Math.max(peak, fillQueue.size());
+            int index = fillQueue.poll();
+            expanded++;
+            int fillValue = values[index] + 1;
+            int x = index / cols;
+            int y = index % cols;
+
+            if (y != cols - 1) {
+                queueNeighbor(map, index + 1, fillValue);    // North
+            }
+
+            if (y != 0) {
+                queueNeighbor(map, index - 1, fillValue);    // South
+            }
+
+            if (x != rows - 1) {
+                queueNeighbor(map, index + cols, fillValue); // East
+            }
+
+            if (x != 0) {
+                queueNeighbor(map, index - cols, fillValue); // West
+            }
+        }
+
+        expandedCount = expanded;
+        frontierPeak = peak;
+    }
+
+    /**
+     * Returns the costs of a map if it has cells that cost more than one
+     * step to enter.
+     *
+     * @param map The map.
+     * @return The map as a cost map, or {@code null} if its cells all cost
+     *         the same.
+     */
+    private static CostMap weightedCosts(ObstacleMap map) {
+        if (map instanceof CostMap && ((CostMap) map).getMaxCost() > 1) {
+            return (CostMap) map;
+        }
+
+        return null;
+    }
+
+    /**
+     * Fills the field with the cheapest cost of reaching the end cell from
+     * each cell, using Dijkstra's algorithm with Dial's buckets.
+     *
+     * @param endIndex The index of the end cell.
+     */
+    private void fillWeighted(int endIndex) {
+        int maxCost = costs.getMaxCost();
+        if (bucketQueue == null || bucketQueue.getMaxCost() < maxCost) {
+            bucketQueue = new BucketQueue(maxCost);
+        }
+
+        Arrays.fill(values, PathFinder.UNFILLED);
+        end = endIndex;
+
+        values[endIndex] = PathFinder.BLOCKED + 1;
+        bucketQueue.clear(PathFinder.BLOCKED + 1);
+        bucketQueue.add(endIndex, PathFinder.BLOCKED + 1);
+        int expanded = 0;
+        int peak = 0;
+        while (!bucketQueue.isEmpty()) {
+            peak = Math.max(peak, bucketQueue.size());
+            int index = bucketQueue.poll();
+            int value = bucketQueue.getPriority();
+            if (values[index] != value) {
+                // A cheaper way to the cell was already expanded
+                continue;
+            }
+            expanded++;
+
+            // Every neighbor pays the cost of stepping into this cell
+            int fillValue = value + costs.getCost(index);
+            int x = index / cols;
+            int y = index % cols;
+
+            if (y != cols - 1) {
+                relaxNeighbor(index + 1, fillValue);    // North
+            }
+
+            if (y != 0) {
+                relaxNeighbor(index - 1, fillValue);    // South
+            }
+
+            if (x != rows - 1) {
+                relaxNeighbor(index + cols, fillValue); // East
+            }
+
+            if (x != 0) {
+                relaxNeighbor(index - cols, fillValue); // West
+            }
+        }
+
+        expandedCount = expanded;
+        frontierPeak = peak;
+    }
+
+    /**
+     * Lowers the value of a neighbor during a weighted fill and queues it if
+     * it is open and the new value is cheaper.
+     *
+     * @param neighbor The index of the neighbor.
+     * @param fillValue The value to fill the neighbor with.
+     */
+    private void relaxNeighbor(int neighbor, int fillValue) {
+        int value = values[neighbor];
+        if ((value == PathFinder.UNFILLED || fillValue < value)
+            && !costs.isBlocked(neighbor)) {
+            values[neighbor] = fillValue;
+            bucketQueue.add(neighbor, fillValue);
+        }
+    }
+
+    /**
+     * Fills and queues a neighbor if it is open and hasn't been filled yet.
+     *
+     * @param map The map to read blocked cells from.
+     * @param neighbor The index of the neighbor.
+     * @param fillValue The value to fill the neighbor with.
+     */
+    private void queueNeighbor(ObstacleMap map, int neighbor, int fillValue) {
+        if (values[neighbor] == PathFinder.UNFILLED
+            && !map.isBlocked(neighbor)) {
+            values[neighbor] = fillValue;
+            fillQueue.add(neighbor);
+        }
+    }
+
+    /**
+     * Fills the field like {@link #fill(ObstacleMap, int)}, expanding each
+     * level of the wave across the threads of a pool.
+     * <p>
+     * The cells of a level are split into chunks that are expanded in
+     * parallel, claiming neighbors in a shared atomic bitset so each cell is
+     * filled exactly once. Since a whole level is finished before the next
+     * one starts, the values are exactly the same as a sequential fill's.
+     * Fields with fewer than {@link #PARALLEL_THRESHOLD} cells, levels too
+     * small to split, and maps with differing costs are filled sequentially.
+     *
+     * @param map The map to read blocked cells from. It must not be modified
+     *            during the fill.
+     * @param endIndex The index of the end cell.
+     * @param pool The pool to run the fill on.
+     * @throws IllegalArgumentException If the map isn't the same size as the
+     *         field.
+     */
+    public void fill(ObstacleMap map, int endIndex, ForkJoinPool pool) {
+        if (rows * cols < PARALLEL_THRESHOLD || weightedCosts(map) != null) {
+            fill(map, endIndex);
+            return;
+        }
+
+        if (map.getRows() != rows || map.getCols() != cols) {
+            throw new IllegalArgumentException("The map and field sizes"
+                                               + " differ.");
+        }
+
+        Arrays.fill(values, PathFinder.UNFILLED);
+        end = endIndex;
+        costs = null;
+
+        Level level = new Level(map, new AtomicLongArray((rows * cols + 63)
+                                                         >>> 6));
+        level.claim(endIndex);
+        values[endIndex] = PathFinder.BLOCKED + 1;
+
+        int[] frontier = {endIndex};
+        int frontierSize = 1;
+        int fillValue = PathFinder.BLOCKED + 2;
+        int expanded = 0;
+        int peak = 0;
+        while (frontierSize != 0) {
+            expanded += frontierSize;
+            peak = Math.max(peak, frontierSize);
+            int chunks = (frontierSize + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            level.start(frontier, fillValue, chunks);
+            if (chunks == 1) {
+                level.expand(0, frontierSize);
+            } else {
+                pool.invoke(level.new Expansion(0, frontierSize));
+            }
+
+            // Gather the cells each chunk filled into the next frontier
+            int nextSize = 0;
+            for (int i = 0; i < chunks; i++) {
+                nextSize += level.filledCounts[i];
+            }
+
+            int[] next = new int[Math.max(nextSize, 1)];
+            int position = 0;
+            for (int i = 0; i < chunks; i++) {
+                int count = level.filledCounts[i];
+                System.arraycopy(level.filled[i], 0, next, position, count);
+                position += count;
+            }
+
+            frontier = next;
+            frontierSize = nextSize;
+            fillValue++;
+        }
+
+        expandedCount = expanded;
+        frontierPeak = peak;
+    }
+
+    /**
+     * The state shared by the tasks that expand one level of a parallel
+     * fill.
+     */
+    private final class Level {
+        /** The map to read blocked cells from. */
+        private final ObstacleMap map;
+        /** The cells that have been claimed, one bit per cell. */
+        private final AtomicLongArray claimed;
+        /** The cells being expanded. */
+        private int[] frontier;
+        /** The value to fill the cells of the next level with. */
+        private int fillValue;
+        /** The cells filled by each chunk. */
+        private int[][] filled;
+        /** The number of cells filled by each chunk. */
+        private int[] filledCounts;
+
+        /**
+         * Creates the shared state of a fill.
+         *
+         * @param map The map to read blocked cells from.
+         * @param claimed The bitset to claim cells in.
+         */
+        Level(ObstacleMap map, AtomicLongArray claimed) {
+            this.map = map;
+            this.claimed = claimed;
+        }
+
+        /**
+         * Prepares to expand a level.
+         *
+         * @param frontier The cells being expanded.
+         * @param fillValue The value to fill the next level with.
+         * @param chunks The number of chunks the level is split into.
+         */
+        void start(int[] frontier, int fillValue, int chunks) {
+            this.frontier = frontier;
+            this.fillValue = fillValue;
+            filled = new int[chunks][];
+            filledCounts = new int[chunks];
+        }
+
+        /**
+         * Claims a cell for the calling thread.
+         *
+         * @param index The index of the cell.
+         * @return true if no other thread had claimed the cell.
+         */
+        boolean claim(int index) {
+            int word = index >>> 6;
+            long bit = 1L << index;
+            while (true) {
+                long bits = claimed.get(word);
+                if ((bits & bit) != 0) {
+                    return false;
+                }
+
+                if (claimed.compareAndSet(word, bits, bits | bit)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Expands one chunk of the frontier, filling the open neighbors it
+         * claims.
+         *
+         * @param from The position of the first cell of the chunk.
+         * @param to The position after the last cell of the chunk.
+         */
+        void expand(int from, int to) {
+            int[] cells = new int[Math.min(3 * (to - from) + 1, rows * cols)];
+            int count = 0;
+
+            for (int i = from; i < to; i++) {
+                int index = frontier[i];
+                int x = index / cols;
+                int y = index % cols;
+
+                if (y != cols - 1 && fillNeighbor(index + 1)) {
+                    cells[count++] = index + 1;       // North
+                }
+
+                if (y != 0 && fillNeighbor(index - 1)) {
+                    cells[count++] = index - 1;       // South
+                }
+
+                if (x != rows - 1 && fillNeighbor(index + cols)) {
+                    cells[count++] = index + cols;    // East
+                }
+
+                if (x != 0 && fillNeighbor(index - cols)) {
+                    cells[count++] = index - cols;    // West
+                }
+            }
+
+            filled[from / CHUNK_SIZE] = cells;
+            filledCounts[from / CHUNK_SIZE] = count;
+        }
+
+        /**
+         * Fills a neighbor if it is open and can be claimed.
+         *
+         * @param neighbor The index of the neighbor.
+         * @return true if the neighbor was filled.
+         */
+        private boolean fillNeighbor(int neighbor) {
+            if (values[neighbor] != PathFinder.UNFILLED
+                || map.isBlocked(neighbor) || !claim(neighbor)) {
+                return false;
+            }
+
+            values[neighbor] = fillValue;
+            return true;
+        }
+
+        /**
+         * A task that expands part of the frontier, splitting it along chunk
+         * boundaries until each task has one chunk.
+         */
+        final class Expansion extends RecursiveAction {
+            /** The serialization version, required by RecursiveAction. */
+            private static final long serialVersionUID = 1L;
+            /** The position of the first cell to expand. */
+            private final int from;
+            /** The position after the last cell to expand. */
+            private final int to;
+
+            /**
+             * Creates a task for part of the frontier.
+             *
+             * @param from The position of the first cell to expand.
+             * @param to The position after the last cell to expand.
+             */
+            Expansion(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+                if (chunks <= 1) {
+                    expand(from, to);
+                    return;
+                }
+
+                int middle = from + (chunks / 2) * CHUNK_SIZE;
+                invokeAll(new Expansion(from, middle),
+                          new Expansion(middle, to));
+            }
+        }
+    }
+
+    /**
+     * Repairs the field after cells of the map have been (un)blocked, so it
+     * holds the same values a refill would.
+     * <p>
+     * This is Lifelong Planning A* without a heuristic: each cell's value is
+     * compared with the value its neighbors say it should have, and cells
+     * that disagree are fixed in order of distance from the end point until
+     * every cell agrees. The work done is proportional to the number of
+     * cells whose values change, not to the size of the map.
+     * <p>
+     * If the map is a {@link CostMap}, cells whose costs changed can be
+     * repaired the same way as cells that were (un)blocked.
+     *
+     * @param map The map the field was filled from, with its changes.
+     * @param cells The indices of the cells that were (un)blocked or had
+     *              their costs changed.
+     * @return The number of cells whose values changed, which can be read
+     *         with {@link #getRepaired(int)}.
+     * @throws IllegalStateException If the field hasn't been filled.
+     * @throws IllegalArgumentException If the map isn't the same size as the
+     *         field.
+     */
+    public int repair(ObstacleMap map, int... cells) {
+        if (end == -1) {
+            throw new IllegalStateException("The field hasn't been filled.");
+        }
+
+        if (map.getRows() != rows || map.getCols() != cols) {
+            throw new IllegalArgumentException("The map and field sizes"
+                                               + " differ.");
+        }
+
+        if (repairQueue == null) {
+            repairQueue = new IntHeap(rows * cols);
+            targets = new int[rows * cols];
+        }
+
+        costs = weightedCosts(map);
+        repairedCount = 0;
+        for (int cell : cells) {
+            updateTarget(map, cell);
+            updateNeighborTargets(map, cell);
+        }
+
+        int expanded = 0;
+        int peak = 0;
+        while (!repairQueue.isEmpty()) {
+            peak = Math.max(peak, repairQueue.size());
+            int index = repairQueue.poll();
+            expanded++;
+            if (distanceOf(index) > targets[index]) {
+                // The cell got closer, so settle it and tell its neighbors
+                setDistance(index, targets[index]);
+            } else {
+                // The cell got further away, so its neighbors have to find
+                // another way before it can be settled
+                setDistance(index, UNREACHABLE);
+                updateTarget(map, index);
+            }
+
+            updateNeighborTargets(map, index);
+        }
+
+        expandedCount = expanded;
+        frontierPeak = peak;
+        return repairedCount;
+    }
+
+    /**
+     * Recalculates the distance a cell should have from its neighbors and
+     * queues it for repair if that differs from the distance it has.
+     *
+     * @param map The map to read blocked cells from.
+     * @param index The index of the cell.
+     */
+    private void updateTarget(ObstacleMap map, int index) {
+        if (index == end) {
+            return;
+        }
+
+        int target = UNREACHABLE;
+        if (!map.isBlocked(index)) {
+            int x = index / cols;
+            int y = index % cols;
+
+            if (y != cols - 1) {
+                target = Math.min(target, distanceThrough(index + 1));
+            }
+
+            if (y != 0) {
+                target = Math.min(target, distanceThrough(index - 1));
+            }
+
+            if (x != rows - 1) {
+                target = Math.min(target, distanceThrough(index + cols));
+            }
+
+            if (x != 0) {
+                target = Math.min(target, distanceThrough(index - cols));
+            }
+        }
+
+        int distance = distanceOf(index);
+        if (target != distance) {
+            targets[index] = target;
+            repairQueue.add(index, Math.min(distance, target));
+        } else {
+            repairQueue.remove(index);
+        }
+    }
+
+    /**
+     * Recalculates the distances the neighbors of a cell should have.
+     *
+     * @param map The map to read blocked cells from.
+     * @param index The index of the cell.
+     */
+    private void updateNeighborTargets(ObstacleMap map, int index) {
+        int x = index / cols;
+        int y = index % cols;
+
+        if (y != cols - 1) {
+            updateTarget(map, index + 1);
+        }
+
+        if (y != 0) {
+            updateTarget(map, index - 1);
+        }
+
+        if (x != rows - 1) {
+            updateTarget(map, index + cols);
+        }
+
+        if (x != 0) {
+            updateTarget(map, index - cols);
+        }
+    }
+
+    /**
+     * Returns the distance of a cell in the units of the field's values,
+     * treating unfilled cells as infinitely far away.
+     *
+     * @param index The index of the cell.
+     * @return The distance.
+     */
+    private int distanceOf(int index) {
+        int value = values[index];
+        return value == PathFinder.UNFILLED ? UNREACHABLE : value;
+    }
+
+    /**
+     * Returns the distance of a cell's neighbor plus the cost of stepping
+     * into it, treating unfilled cells as infinitely far away.
+     *
+     * @param neighbor The index of the neighbor.
+     * @return The distance through the neighbor.
+     */
+    private int distanceThrough(int neighbor) {
+        int distance = distanceOf(neighbor);
+        if (distance == UNREACHABLE) {
+            return UNREACHABLE;
+        }
+
+        return distance + (costs == null ? 1 : costs.getCost(neighbor));
+    }
+
+    /**
+     * Changes the value of a cell during a repair and records the change.
+     *
+     * @param index The index of the cell.
+     * @param distance The new distance, or {@code UNREACHABLE}.
+     */
+    private void setDistance(int index, int distance) {
+        values[index] = distance == UNREACHABLE ? PathFinder.UNFILLED
+                                                : distance;
+
+        if (repairedCount == repaired.length) {
+            repaired = Arrays.copyOf(repaired, 2 * repairedCount);
+        }
+        repaired[repairedCount] = index;
+        repairedCount++;
+    }
+
+    /**
+     * Gets a cell whose value changed during the last repair. A cell may be
+     * listed more than once.
+     *
+     * @param i The position of the cell in the list, below the count
+     *          returned by the repair.
+     * @return The index of the cell.
+     * @throws IndexOutOfBoundsException If there is no cell at the position.
+     */
+    public int getRepaired(int i) {
+        if (i < 0 || i >= repairedCount) {
+            throw new IndexOutOfBoundsException("Position " + i + " outside"
+                                                + " of repaired cells.");
+        }
+
+        return repaired[i];
+    }
+
+    /**
+     * Returns the number of cells expanded by the last fill or repair. A
+     * fill that can't reach much of the map expands few cells, while one
+     * from an end point walled off from the start may expand all of it.
+     *
+     * @return The number of cells expanded.
+     */
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Returns the most cells that were waiting to be expanded at once
+     * during the last fill or repair.
+     *
+     * @return The peak size of the frontier.
+     */
+    public int getFrontierPeak() {
+        return frontierPeak;
+    }
+
+    /**
+     * Releases the memory used to fill and repair the field, leaving only
+     * its values. It is allocated again if the field is refilled or
+     * repaired.
+     */
+    public void trim() {
+        fillQueue = null;
+        repairQueue = null;
+        targets = null;
+        bucketQueue = null;
+    }
+
+    /**
+     * Follows the field from a start cell to the end cell, always stepping to
+     * the neighbor chosen by {@link #getNext(int)}.
+     *
+     * @param startIndex The index of the start cell.
+     * @param out The buffer to store the path in. It is cleared first. If the
+     *            end cell couldn't be reached, only the start cell will be
+     *            included.
+     * @return true if the end cell was reached.
+     * @throws IllegalStateException If the field hasn't been filled.
+     */
+    public boolean trace(int startIndex, PathBuffer out) {
+        if (end == -1) {
+            throw new IllegalStateException("The field hasn't been filled.");
+        }
+
+        int index = startIndex;
+
+        out.clear();
+        while (index != end) {
+            out.add(index / cols, index % cols);
+            index = getNext(index);
+
+            if (index == -1) {
+                return false;
+            }
+        }
+        out.add(end / cols, end % cols);
+
+        return true;
+    }
+
+    /**
+     * Gets the index of the next cell on the way to the end point, checking
+     * the northern, southern, western and eastern neighbors in that order.
+     * If the field was filled with costs, the next cell is the first one on
+     * a cheapest path.
+     *
+     * @param index The index of the current cell.
+     * @return The index of the neighbor with a lower value or {@code -1} if
+     *         none could be found.
+     * @throws IllegalStateException If adjacent cells have the same value.
+     */
+    public int getNext(int index) {
+        int x = index / cols;
+        int y = index % cols;
+
+        if (y != cols - 1 && isNext(index, index + 1)) {
+            return index + 1;
+        } else if (y != 0 && isNext(index, index - 1)) {
+            return index - 1;
+        } else if (x != 0 && isNext(index, index - cols)) {
+            return index - cols;
+        } else if (x != rows - 1 && isNext(index, index + cols)) {
+            return index + cols;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Determines if a given cell can be traversed from the first.
+     *
+     * @param first The index of the first cell.
+     * @param second The index of the second cell.
+     * @return true if the second cell is traversable from the first.
+     */
+    private boolean isNext(int first, int second) {
+        int secondVal = values[second];
+        if (secondVal == PathFinder.UNFILLED) {
+            return false;
+        } else if (costs != null) {
+            return secondVal + costs.getCost(second) == values[first];
+        } else if (secondVal == values[first]) {
+            // Make sure the field isn't in an invalid state
+            throw new IllegalStateException("Adjacent cells have the same"
+                                            + " value.");
+        }
+
+        return secondVal < values[first];
+    }
+
+    /**
+     * Returns the value of the cell at the given index.
+     *
+     * @param index The index of the cell.
+     * @return The value, or {@link PathFinder#UNFILLED} if the cell couldn't
+     *         be reached.
+     */
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the value of the cell at the given coordinates.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The value, or {@link PathFinder#UNFILLED} if the cell couldn't
+     *         be reached.
+     */
+    public int getValue(int x, int y) {
+        return values[x * cols + y];
+    }
+
+    /**
+     * Determines if the field was filled with terrain costs, so its values
+     * are costs rather than numbers of steps.
+     *
+     * @return true if the field was filled from a {@link CostMap} with
+     *         differing costs.
+     */
+    public boolean isWeighted() {
+        return costs != null;
+    }
+
+    /**
+     * Returns the index of the end cell the field was last filled from.
+     *
+     * @return The index, or {@code -1} if the field hasn't been filled.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the number of rows in the field.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns in the field.
+     *
+     * @return The number of columns.
+     */
+    public int getCols() {
+        return cols;
+    }
+}
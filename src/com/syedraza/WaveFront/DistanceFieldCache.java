@@ -0,0 +1,348 @@
+package com.syedraza.WaveFront;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of filled {@link DistanceField}s, keyed by map, map
+ * version and end point.
+ * <p>
+ * A distance field holds the distance of every cell from its end point, so
+ * once one is filled, a path from any start point to that end point only
+ * costs a traversal as long as the path. Keeping the fields of the most
+ * popular end points lets repeated queries to them skip the fill entirely.
+ * When the cache is over its memory budget, the least recently used fields
+ * are evicted.
+ * <p>
+ * Fields filled from a {@link VersionedMap} are keyed by its current
+ * version, so they stop being used as soon as the map changes. Other maps
+ * are treated as never changing unless a version is passed explicitly or
+ * {@link #invalidate(ObstacleMap)} is called after editing them. Fields
+ * filled from a {@link GridSnapshot} are keyed by the {@link SnapshotGrid}
+ * it was committed from rather than the snapshot itself, so every query
+ * against the same version shares them, older versions are pruned as newer
+ * ones are filled, and no closed snapshot is kept reachable.
+ * <p>
+ * The cache is thread-safe. The fields it returns are shared, so they must
+ * not be refilled or repaired.
+ */
+public class DistanceFieldCache {
+    /** The cached fields, from least to most recently used. */
+    private final LinkedHashMap<Key, DistanceField> fields;
+    /** The most memory the cached fields may use, in bytes. */
+    private final long maxBytes;
+    /** The memory used by the cached fields, in bytes. */
+    private long bytes;
+    /** The number of lookups that found a cached field. */
+    private long hits;
+    /** The number of lookups that had to fill a field. */
+    private long misses;
+    /** The number of fields removed to stay in budget or out of date. */
+    private long evictions;
+
+    /**
+     * Creates an empty cache with the given memory budget.
+     *
+     * @param maxBytes The most memory the cached fields may use, in bytes.
+     *                 A field that is larger than the budget by itself is
+     *                 filled but not kept.
+     * @throws IllegalArgumentException If the budget is negative.
+     */
+    public DistanceFieldCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("The memory budget is"
+                                               + " negative.");
+        }
+
+        this.maxBytes = maxBytes;
+        fields = new LinkedHashMap<>(16, 0.75F, true);
+    }
+
+    /**
+     * Gets the field for the given end point, filling it if it isn't cached.
+     * The map's version is used if it is a {@link VersionedMap}.
+     *
+     * @param map The map to read blocked cells from.
+     * @param end The end point inside the map.
+     * @return The filled field, which must not be modified.
+     * @throws IndexOutOfBoundsException If the end point is outside of the
+     *         map.
+     */
+    public DistanceField get(ObstacleMap map, Point2D end) {
+        return get(map, versionOf(map), end);
+    }
+
+    /**
+     * Gets the field for the given end point and map version, filling it if
+     * it isn't cached.
+     *
+     * @param map The map to read blocked cells from.
+     * @param version The version of the map's blocked cells.
+     * @param end The end point inside the map.
+     * @return The filled field, which must not be modified.
+     * @throws IndexOutOfBoundsException If the end point is outside of the
+     *         map.
+     */
+    public DistanceField get(ObstacleMap map, long version, Point2D end) {
+        int rows = map.getRows();
+        int cols = map.getCols();
+        int x = end.getX();
+        int y = end.getY();
+        if (x < 0 || x >= rows || y < 0 || y >= cols) {
+            throw new IndexOutOfBoundsException("End point outside of grid"
+                                                + " range.");
+        }
+
+        Key key = new Key(sourceOf(map), version, x * cols + y);
+        synchronized (this) {
+            DistanceField field = fields.get(key);
+            if (field != null) {
+                hits++;
+                return field;
+            }
+            misses++;
+        }
+
+        // Fill outside of the lock so other lookups aren't held up
+        DistanceField field = new DistanceField(rows, cols);
+        field.fill(map, key.end);
+        field.trim();
+
+        synchronized (this) {
+            DistanceField cached = fields.get(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            long size = sizeOf(field);
+            if (size <= maxBytes) {
+                removeStale(key);
+                fields.put(key, field);
+                bytes += size;
+                evictToBudget();
+            }
+        }
+
+        return field;
+    }
+
+    /**
+     * Finds the path from a start point to an end point using the cached
+     * field for the end point.
+     *
+     * @param map The map to read blocked cells from.
+     * @param start The start point inside the map.
+     * @param end The end point inside the map.
+     * @param out The buffer to store the path in. It is cleared first. If a
+     *            suitable path couldn't be found, only the start point will be
+     *            included.
+     * @return true if a path was found.
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public boolean findPath(ObstacleMap map, Point2D start, Point2D end,
+                            PathBuffer out) {
+        DistanceField field = get(map, end);
+        int x = start.getX();
+        int y = start.getY();
+        if (x < 0 || x >= map.getRows() || y < 0 || y >= map.getCols()) {
+            throw new IndexOutOfBoundsException("Start point outside of grid"
+                                                + " range.");
+        }
+
+        return field.trace(x * map.getCols() + y, out);
+    }
+
+    /**
+     * Removes every cached field of the given map, or of every version of
+     * its grid if it is a {@link GridSnapshot}. This must be called after
+     * editing a map that isn't a {@link VersionedMap}.
+     *
+     * @param map The map.
+     */
+    public synchronized void invalidate(ObstacleMap map) {
+        Object source = sourceOf(map);
+        Iterator<Map.Entry<Key, DistanceField>> it =
+            fields.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, DistanceField> entry = it.next();
+            if (entry.getKey().source == source) {
+                bytes -= sizeOf(entry.getValue());
+                evictions++;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes every cached field.
+     */
+    public synchronized void clear() {
+        fields.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Removes the fields for the same map and end point as a key that were
+     * filled from other versions of the map, since they can't be used again
+     * once the map has moved on.
+     *
+     * @param key The key of the field being added.
+     */
+    private void removeStale(Key key) {
+        Iterator<Map.Entry<Key, DistanceField>> it =
+            fields.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, DistanceField> entry = it.next();
+            Key other = entry.getKey();
+            if (other.source == key.source && other.end == key.end
+                && other.version != key.version) {
+                bytes -= sizeOf(entry.getValue());
+                evictions++;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used fields until the cache is in budget.
+     */
+    private void evictToBudget() {
+        Iterator<DistanceField> it = fields.values().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= sizeOf(it.next());
+            evictions++;
+            it.remove();
+        }
+    }
+
+    /**
+     * Returns the version of a map, or 0 if it doesn't keep track of one.
+     *
+     * @param map The map.
+     * @return The version.
+     */
+    private static long versionOf(ObstacleMap map) {
+        if (map instanceof VersionedMap) {
+            return ((VersionedMap) map).getVersion();
+        }
+
+        return 0;
+    }
+
+    /**
+     * Returns the object that identifies where a map's cells come from: the
+     * grid of a snapshot, or else the map itself.
+     *
+     * @param map The map.
+     * @return The source of the map's cells.
+     */
+    private static Object sourceOf(ObstacleMap map) {
+        if (map instanceof GridSnapshot) {
+            return ((GridSnapshot) map).getGrid();
+        }
+
+        return map;
+    }
+
+    /**
+     * Estimates the memory used by a trimmed field.
+     *
+     * @param field The field.
+     * @return The size in bytes.
+     */
+    private static long sizeOf(DistanceField field) {
+        return 4L * field.getRows() * field.getCols();
+    }
+
+    /**
+     * Returns the number of lookups that found a cached field.
+     *
+     * @return The hit count.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to fill a field.
+     *
+     * @return The miss count.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of fields removed because the cache was over budget
+     * or they were out of date.
+     *
+     * @return The eviction count.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of cached fields.
+     *
+     * @return The size.
+     */
+    public synchronized int size() {
+        return fields.size();
+    }
+
+    /**
+     * Returns the memory used by the cached fields.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Identifies a field by the source of the map, map version and end point
+     * it was filled from. Sources are compared by identity.
+     */
+    private static final class Key {
+        /** The map or snapshot grid the field was filled from. */
+        final Object source;
+        /** The version of the map. */
+        final long version;
+        /** The index of the end cell. */
+        final int end;
+
+        /**
+         * Creates a key.
+         *
+         * @param source The map or snapshot grid.
+         * @param version The version of the map.
+         * @param end The index of the end cell.
+         */
+        Key(Object source, long version, int end) {
+            this.source = source;
+            this.version = version;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+            return other.source == source && other.version == version
+                   && other.end == end;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = System.identityHashCode(source);
+            hash = 31 * hash + (int) (version ^ (version >>> 32));
+            return 31 * hash + end;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.syedraza.WaveFront;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A grid that stores its cells in a flat array instead of as linked nodes.
+ * <p>
+ * Cell values are kept in a single {@code int[]} indexed by
+ * {@code x * cols + y} and blocked cells are kept in a bitset, so a cell
+ * costs a little over four bytes instead of a {@link DNode} and its four
+ * references. Neighbors are found arithmetically, which keeps fills over
+ * large maps cache-friendly.
+ * <p>
+ * Note: Like a {@link LinkedGrid}, cells will be filled in and managed by a
+ * {@link PathFinder}. You should only manually modify the values of cells in
+ * order to (un)block them, which will require updating the PathFinder.
+ */
+public class FlatGrid implements IndexedGrid, VersionedMap {
+    /** The values of the cells, indexed by {@code x * cols + y}. */
+    private final int[] values;
+    /** The cells that have been blocked. */
+    private final BitSet blocked;
+    /** The number of times cells have been (un)blocked. */
+    private long version;
+    /** The number of rows in the grid. */
+    public final int rows;
+    /** The number of columns in the grid. */
+    public final int cols;
+
+    /**
+     * Creates a flat grid of the specified size.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @throws IllegalArgumentException If the grid has more cells than can be
+     *         indexed by an {@code int}.
+     */
+    public FlatGrid(int rows, int cols) {
+        if (rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid grid size: " + rows
+                                               + "x" + cols + ".");
+        }
+
+        this.rows = rows;
+        this.cols = cols;
+        values = new int[rows * cols];
+        blocked = new BitSet(rows * cols);
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the index of the cell at the given coordinates.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The index of the cell.
+     */
+    public int index(int x, int y) {
+        return x * cols + y;
+    }
+
+    /**
+     * Returns the x coordinate of the cell at the given index.
+     *
+     * @param index The index of the cell.
+     * @return The x coordinate.
+     */
+    public int getX(int index) {
+        return index / cols;
+    }
+
+    /**
+     * Returns the y coordinate of the cell at the given index.
+     *
+     * @param index The index of the cell.
+     * @return The y coordinate.
+     */
+    public int getY(int index) {
+        return index % cols;
+    }
+
+    @Override
+    public int getValue(int index) {
+        if (blocked.get(index)) {
+            return PathFinder.BLOCKED;
+        }
+
+        return values[index];
+    }
+
+    @Override
+    public void setValue(int index, int value) {
+        boolean block = value == PathFinder.BLOCKED;
+        if (block != blocked.get(index)) {
+            blocked.set(index, block);
+            version++;
+        }
+
+        values[index] = block ? PathFinder.UNFILLED : value;
+    }
+
+    /**
+     * Blocks a run of cells at once, counting it as a single change.
+     *
+     * @param from The index of the first cell to block.
+     * @param to The index after the last cell to block.
+     */
+    void blockRun(int from, int to) {
+        blocked.set(from, to);
+        Arrays.fill(values, from, to, PathFinder.UNFILLED);
+        version++;
+    }
+
+    /**
+     * Returns the version of the grid's blocked cells, which changes
+     * whenever a cell is (un)blocked. Filling the grid doesn't change it.
+     *
+     * @return The version.
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return blocked.get(index);
+    }
+
+    /**
+     * Gets the value of the cell at the given coordinates.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The value.
+     */
+    public int getValue(int x, int y) {
+        checkRange(x, y);
+        return getValue(index(x, y));
+    }
+
+    /**
+     * Sets the value of the cell at the given coordinates.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param value The integer value to set.
+     */
+    public void setValue(int x, int y, int value) {
+        checkRange(x, y);
+        setValue(index(x, y), value);
+    }
+
+    /**
+     * Determines if the cell at the given coordinates is blocked.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the cell is blocked.
+     */
+    public boolean isBlocked(int x, int y) {
+        checkRange(x, y);
+        return blocked.get(index(x, y));
+    }
+
+    /**
+     * Gets a node view of the cell specified by the given coordinates.
+     * <p>
+     * The node is not stored by the grid; it reads and writes the cell's
+     * value directly, so existing code that (un)blocks nodes keeps working.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return A node backed by the cell at the given point.
+     */
+    public Node getNode(int x, int y) {
+        checkRange(x, y);
+        return new CellNode(index(x, y));
+    }
+
+    /**
+     * Gets a node view of the cell specified by the given point.
+     *
+     * @param p The 2D point.
+     * @return A node backed by the cell at the given point.
+     */
+    public Node getNode(Point2D p) {
+        return getNode(p.getX(), p.getY());
+    }
+
+    /**
+     * Returns the value of the largest cell.
+     *
+     * @return the value.
+     */
+    public int getMax() {
+        int max = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] > max) {
+                max = values[i];
+            }
+        }
+
+        if (max < PathFinder.BLOCKED && !blocked.isEmpty()) {
+            max = PathFinder.BLOCKED;
+        }
+
+        return max;
+    }
+
+    @Override
+    public void partialReset() {
+        Arrays.fill(values, PathFinder.UNFILLED);
+    }
+
+    @Override
+    public void fullReset() {
+        Arrays.fill(values, PathFinder.UNFILLED);
+        if (!blocked.isEmpty()) {
+            blocked.clear();
+            version++;
+        }
+    }
+
+    /**
+     * Makes sure the given coordinates are inside of the grid. Without this a
+     * coordinate that is out of range could silently wrap onto another row.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @throws IndexOutOfBoundsException If the point is outside of the grid.
+     */
+    private void checkRange(int x, int y) {
+        if (x < 0 || x >= rows || y < 0 || y >= cols) {
+            throw new IndexOutOfBoundsException("Point (" + x + "," + y
+                                                + ") outside of grid range.");
+        }
+    }
+
+    /**
+     * Returns a string representation of the grid with numbered axes.
+     * <p>
+     * Note: The axes of the grid are switched, so the x coordinate would
+     * correspond to the vertical axis and vice-versa.
+     *
+     * @return The formatted grid as a string.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("\\Y");
+
+        // Column numbers
+        for (int j = 0; j < cols; j++) {
+            String colNum = String.format("%3s", j);
+            result.append(" ").append(colNum);
+        }
+        result.append("\nX _|\n");
+
+        for (int i = 0; i < rows; i++) {
+            // Row numbers
+            String row = String.format("%2s", i);
+            result.append(row).append(" ");
+
+            for (int j = 0; j < cols; j++) {
+                String valueString = String.format("%3s", getValue(i, j));
+                result.append(valueString).append(" ");
+            }
+            result.append("\n");
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * A node whose value is stored in the grid's cell array.
+     */
+    private class CellNode extends Node {
+        /** The index of the cell backing the node. */
+        private final int index;
+
+        /**
+         * Creates a node backed by the given cell.
+         *
+         * @param index The index of the cell.
+         */
+        CellNode(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void setValue(int value) {
+            FlatGrid.this.setValue(index, value);
+        }
+
+        @Override
+        public int getValue() {
+            return FlatGrid.this.getValue(index);
+        }
+    }
+}
@@ -29,6 +29,72 @@ public class Grid {
         }
     }
 
+    /**
+     * Returns the number of rows in the grid.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns in the grid.
+     *
+     * @return The number of columns.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the value of the node at the given index, where the node at
+     * point (x, y) has the index {@code x * cols + y}.
+     *
+     * @param index The index of the node.
+     * @return The value.
+     */
+    public int getValue(int index) {
+        return grid[index / cols][index % cols].getValue();
+    }
+
+    /**
+     * Sets the value of the node at the given index, where the node at point
+     * (x, y) has the index {@code x * cols + y}.
+     *
+     * @param index The index of the node.
+     * @param value The integer value to set.
+     */
+    public void setValue(int index, int value) {
+        grid[index / cols][index % cols].setValue(value);
+    }
+
+    /**
+     * Determines if the node at the given index is blocked, where the node at
+     * point (x, y) has the index {@code x * cols + y}.
+     *
+     * @param index The index of the node.
+     * @return true if the node is blocked.
+     */
+    public boolean isBlocked(int index) {
+        return getValue(index) == PathFinder.BLOCKED;
+    }
+
+    /**
+     * Blocks a run of nodes in one row, without going through
+     * {@link #getNode(int, int)} for each one.
+     *
+     * @param x The x coordinate of the row.
+     * @param fromY The y coordinate of the first node to block.
+     * @param toY The y coordinate after the last node to block.
+     */
+    void blockRun(int x, int fromY, int toY) {
+        DNode[] row = grid[x];
+        for (int y = fromY; y < toY; y++) {
+            row[y].setValue(PathFinder.BLOCKED);
+        }
+    }
+
     /**
      * Gets the node specified by the given coordinates.
      *
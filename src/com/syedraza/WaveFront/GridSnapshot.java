@@ -0,0 +1,171 @@
+package com.syedraza.WaveFront;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An immutable version of the blocked cells of a {@link SnapshotGrid}.
+ * <p>
+ * A snapshot is obtained pinned from {@link SnapshotGrid#pin()} and must be
+ * closed once the query using it is done. While it is pinned, its cells
+ * never change, no matter how the grid is edited, so a query sees either all
+ * or none of each committed edit. Once a snapshot is closed and newer
+ * versions have been committed, the grid may reuse its memory for later
+ * versions, so it must not be read after it is closed.
+ * <p>
+ * Snapshots are split into chunks of {@link SnapshotGrid#CHUNK_CELLS} cells,
+ * and consecutive versions share every chunk that wasn't edited between
+ * them.
+ */
+public final class GridSnapshot implements VersionedMap, AutoCloseable {
+    /** The pin count of a snapshot whose memory has been reclaimed. */
+    private static final int RECLAIMED = -1;
+
+    /** The grid the snapshot was committed from. */
+    private final SnapshotGrid grid;
+    /** The chunks of blocked bits, shared with other versions. */
+    final long[][] chunks;
+    /** The number of rows in the snapshot. */
+    private final int rows;
+    /** The number of columns in the snapshot. */
+    private final int cols;
+    /** The version of the grid the snapshot holds. */
+    private final long version;
+    /** The number of pins, or {@code RECLAIMED}. */
+    private final AtomicInteger pins = new AtomicInteger();
+    /** The chunks that the next version replaced, set by the grid. */
+    long[][] replaced;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param grid The grid the snapshot is committed from.
+     * @param chunks The chunks of blocked bits, which must not be changed.
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @param version The version of the grid.
+     */
+    GridSnapshot(SnapshotGrid grid, long[][] chunks, int rows, int cols,
+                 long version) {
+        this.grid = grid;
+        this.chunks = chunks;
+        this.rows = rows;
+        this.cols = cols;
+        this.version = version;
+    }
+
+    /**
+     * Returns the grid the snapshot was committed from. Snapshots of the
+     * same grid with the same version hold the same cells.
+     *
+     * @return The grid.
+     */
+    public SnapshotGrid getGrid() {
+        return grid;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        long word = chunks[index >>> SnapshotGrid.CHUNK_SHIFT]
+                          [(index >>> 6) & SnapshotGrid.CHUNK_WORD_MASK];
+        return (word & (1L << index)) != 0;
+    }
+
+    /**
+     * Determines if the cell at the given coordinates is blocked.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the cell is blocked.
+     * @throws IndexOutOfBoundsException If the point is outside of the
+     *         snapshot.
+     */
+    public boolean isBlocked(int x, int y) {
+        if (x < 0 || x >= rows || y < 0 || y >= cols) {
+            throw new IndexOutOfBoundsException("Point (" + x + "," + y
+                                                + ") outside of grid range.");
+        }
+
+        return isBlocked(x * cols + y);
+    }
+
+    /**
+     * Returns the version of the grid the snapshot holds. Each commit to the
+     * grid creates a snapshot with a higher version.
+     *
+     * @return The version.
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Pins the snapshot again, so it can be handed to another query that
+     * closes it separately.
+     *
+     * @return true if the snapshot was pinned, or false if its memory has
+     *         already been reclaimed.
+     */
+    public boolean tryPin() {
+        while (true) {
+            int count = pins.get();
+            if (count == RECLAIMED) {
+                return false;
+            }
+
+            if (pins.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes one pin from the snapshot. Once no pins are left and a newer
+     * version has been committed, the snapshot's memory may be reused.
+     *
+     * @throws IllegalStateException If the snapshot isn't pinned.
+     */
+    @Override
+    public void close() {
+        while (true) {
+            int count = pins.get();
+            if (count <= 0) {
+                throw new IllegalStateException("The snapshot isn't"
+                                                + " pinned.");
+            }
+
+            if (pins.compareAndSet(count, count - 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of pins the snapshot has.
+     *
+     * @return The count, or 0 if the snapshot has been reclaimed.
+     */
+    public int getPinCount() {
+        return Math.max(pins.get(), 0);
+    }
+
+    /**
+     * Marks the snapshot as reclaimed if it has no pins, so it can never be
+     * pinned again.
+     *
+     * @return true if the snapshot was unpinned and is now reclaimed.
+     */
+    boolean tryReclaim() {
+        return pins.compareAndSet(0, RECLAIMED);
+    }
+}
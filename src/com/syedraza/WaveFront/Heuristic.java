@@ -0,0 +1,31 @@
+package com.syedraza.WaveFront;
+
+/**
+ * An estimate of the distance between two points, used to guide an
+ * {@link AStarPathFinder} towards the end point.
+ * <p>
+ * To guarantee the shortest path, an estimate must never be more than the
+ * real length of the shortest path between the points.
+ */
+public interface Heuristic {
+    /**
+     * The vertical and horizontal distance between two points, as given by
+     * {@link Point2D#distance(Point2D)}. This is exact on a grid with no
+     * blocked cells.
+     */
+    Heuristic MANHATTAN = new Heuristic() {
+        @Override
+        public int estimate(Point2D from, Point2D to) {
+            return from.distance(to);
+        }
+    };
+
+    /**
+     * Estimates the length of the shortest path between two points.
+     *
+     * @param from The first point.
+     * @param to The second point.
+     * @return The estimated number of steps between the points.
+     */
+    int estimate(Point2D from, Point2D to);
+}
@@ -0,0 +1,844 @@
+package com.syedraza.WaveFront;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds paths across very large maps with Hierarchical Pathfinding A*
+ * (HPA*).
+ * <p>
+ * The map is split into square clusters. Wherever open cells meet across the
+ * border of two clusters, an entrance is placed: a pair of cells, one on
+ * each side, joined by a single step. The distances between the entrances
+ * of each cluster are calculated once, giving an abstract graph with a few
+ * nodes per cluster. A query connects its start and end points to the
+ * entrances of their own clusters, searches the abstract graph, and then
+ * fills in the cells between consecutive entrances one cluster at a time.
+ * The cost of a query therefore depends on the number of clusters rather
+ * than the number of cells.
+ * <p>
+ * Paths are always valid, but since routes are forced through entrances
+ * they may be slightly longer than the shortest path. After (un)blocking
+ * cells, {@link #update(Point2D...)} rebuilds only the clusters containing
+ * them and the entrances on their borders.
+ * <p>
+ * A pathfinder reuses its search state, so it must only be used by one
+ * thread at a time.
+ */
+public class HierarchicalPathFinder {
+    /** Runs of open border cells at least this long get two entrances. */
+    private static final int LONG_ENTRANCE = 6;
+
+    /** The map to read blocked cells from. */
+    private final ObstacleMap map;
+    /** The number of rows in the map. */
+    private final int rows;
+    /** The number of columns in the map. */
+    private final int cols;
+    /** The width and height of a cluster. */
+    private final int clusterSize;
+    /** The number of clusters along the x axis. */
+    private final int clusterRows;
+    /** The number of clusters along the y axis. */
+    private final int clusterCols;
+    /** The entrances inside each cluster. */
+    private final List<List<Entrance>> clusters;
+    /** The entrances on the eastern border of each cluster. */
+    private final List<List<Entrance>> eastBorders;
+    /** The entrances on the northern border of each cluster. */
+    private final List<List<Entrance>> northBorders;
+    /** Every entrance, by id. Removed entrances leave a {@code null}. */
+    private final List<Entrance> nodes;
+    /** The ids of removed entrances, for reuse. */
+    private final IntQueue freeIds;
+    /** The distances found by searches inside a single cluster. */
+    private final int[] localDistances;
+    /** The cells waiting to be visited by searches inside a cluster. */
+    private final IntQueue localQueue;
+    /** The number of abstract nodes expanded by the last query. */
+    private long expanded;
+
+    /**
+     * Creates a pathfinder for the given map and builds its abstract graph.
+     *
+     * @param map The map to read blocked cells from.
+     * @param clusterSize The width and height of a cluster, in cells.
+     * @throws IllegalArgumentException If the cluster size is less than 2.
+     */
+    public HierarchicalPathFinder(ObstacleMap map, int clusterSize) {
+        if (map == null) {
+            throw new NullPointerException("The passed in map is null.");
+        }
+
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Clusters must be at least 2"
+                                               + " cells wide.");
+        }
+
+        this.map = map;
+        this.clusterSize = clusterSize;
+        rows = map.getRows();
+        cols = map.getCols();
+        clusterRows = (rows + clusterSize - 1) / clusterSize;
+        clusterCols = (cols + clusterSize - 1) / clusterSize;
+
+        int clusterCount = clusterRows * clusterCols;
+        clusters = new ArrayList<>(clusterCount);
+        eastBorders = new ArrayList<>(clusterCount);
+        northBorders = new ArrayList<>(clusterCount);
+        for (int i = 0; i < clusterCount; i++) {
+            clusters.add(new ArrayList<Entrance>());
+            eastBorders.add(new ArrayList<Entrance>());
+            northBorders.add(new ArrayList<Entrance>());
+        }
+
+        nodes = new ArrayList<>();
+        freeIds = new IntQueue(16);
+        localDistances = new int[clusterSize * clusterSize];
+        localQueue = new IntQueue(clusterSize * clusterSize);
+
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            buildEastBorder(cluster);
+            buildNorthBorder(cluster);
+        }
+
+        for (int cluster = 0; cluster < clusterCount; cluster++) {
+            linkCluster(cluster);
+        }
+    }
+
+    /**
+     * Rebuilds the parts of the abstract graph affected by changes to the
+     * given cells. Must be called when (un)blocking any cells.
+     *
+     * @param changed The points of the cells that were (un)blocked.
+     * @throws IndexOutOfBoundsException If a point is outside of the map.
+     */
+    public void update(Point2D... changed) {
+        // Only the clusters touched are tracked, so small updates to a huge
+        // map don't cost a pass over every cluster
+        PointSet rebuilt = new PointSet();
+        PointSet relink = new PointSet();
+
+        for (Point2D p : changed) {
+            checkRange(p);
+            int cluster = clusterOf(p.getX() * cols + p.getY());
+            int cx = cluster / clusterCols;
+            int cy = cluster % clusterCols;
+            if (!rebuilt.add(cx, cy)) {
+                continue;
+            }
+            relink.add(cx, cy);
+
+            // Rebuild all four borders, which also changes the neighbors
+            buildEastBorder(cluster);
+            buildNorthBorder(cluster);
+            if (cx != 0) {
+                buildEastBorder(cluster - clusterCols);
+                relink.add(cx - 1, cy);
+            }
+
+            if (cy != 0) {
+                buildNorthBorder(cluster - 1);
+                relink.add(cx, cy - 1);
+            }
+
+            if (cx != clusterRows - 1) {
+                relink.add(cx + 1, cy);
+            }
+
+            if (cy != clusterCols - 1) {
+                relink.add(cx, cy + 1);
+            }
+        }
+
+        for (long packed : relink.toPackedArray()) {
+            linkCluster(Point2D.unpackX(packed) * clusterCols
+                        + Point2D.unpackY(packed));
+        }
+    }
+
+    /**
+     * Places the entrances between a cluster and the cluster to its east,
+     * replacing any that were there before.
+     *
+     * @param cluster The western cluster.
+     */
+    private void buildEastBorder(int cluster) {
+        removeEntrances(eastBorders.get(cluster));
+
+        int cx = cluster / clusterCols;
+        int cy = cluster % clusterCols;
+        int x = (cx + 1) * clusterSize - 1;
+        if (x >= rows - 1) {
+            return;
+        }
+
+        int fromY = cy * clusterSize;
+        int toY = Math.min(cols, fromY + clusterSize);
+        buildBorder(eastBorders.get(cluster), x * cols + fromY, cols, 1,
+                    toY - fromY);
+    }
+
+    /**
+     * Places the entrances between a cluster and the cluster to its north,
+     * replacing any that were there before.
+     *
+     * @param cluster The southern cluster.
+     */
+    private void buildNorthBorder(int cluster) {
+        removeEntrances(northBorders.get(cluster));
+
+        int cx = cluster / clusterCols;
+        int cy = cluster % clusterCols;
+        int y = (cy + 1) * clusterSize - 1;
+        if (y >= cols - 1) {
+            return;
+        }
+
+        int fromX = cx * clusterSize;
+        int toX = Math.min(rows, fromX + clusterSize);
+        buildBorder(northBorders.get(cluster), fromX * cols + y, 1, cols,
+                    toX - fromX);
+    }
+
+    /**
+     * Places entrances along a border. Each run of cells that are open on
+     * both sides gets an entrance in its middle, or one at each end if it is
+     * long.
+     *
+     * @param border The list to add the border's entrances to.
+     * @param first The index of the first cell on the near side.
+     * @param across The index step from a near cell to the far cell.
+     * @param along The index step from one near cell to the next.
+     * @param length The number of cells along the border.
+     */
+    private void buildBorder(List<Entrance> border, int first, int across,
+                             int along, int length) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int cell = first + i * along;
+            boolean open = i < length && !map.isBlocked(cell)
+                           && !map.isBlocked(cell + across);
+
+            if (open && runStart == -1) {
+                runStart = i;
+            } else if (!open && runStart != -1) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= LONG_ENTRANCE) {
+                    addTransition(border, first + runStart * along, across);
+                    addTransition(border, first + runEnd * along, across);
+                } else {
+                    int middle = (runStart + runEnd) / 2;
+                    addTransition(border, first + middle * along, across);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    /**
+     * Adds the pair of entrances on either side of a border.
+     *
+     * @param border The list of the border's entrances.
+     * @param cell The index of the near cell.
+     * @param across The index step to the far cell.
+     */
+    private void addTransition(List<Entrance> border, int cell, int across) {
+        Entrance near = addEntrance(cell);
+        Entrance far = addEntrance(cell + across);
+        near.partner = far;
+        far.partner = near;
+        border.add(near);
+        border.add(far);
+    }
+
+    /**
+     * Creates an entrance at a cell and adds it to its cluster.
+     *
+     * @param cell The index of the cell.
+     * @return The entrance.
+     */
+    private Entrance addEntrance(int cell) {
+        int id;
+        if (freeIds.isEmpty()) {
+            id = nodes.size();
+            nodes.add(null);
+        } else {
+            id = freeIds.poll();
+        }
+
+        Entrance entrance = new Entrance(id, cell, clusterOf(cell));
+        nodes.set(id, entrance);
+        clusters.get(entrance.cluster).add(entrance);
+        return entrance;
+    }
+
+    /**
+     * Removes the entrances of a border from their clusters.
+     *
+     * @param border The list of the border's entrances, which is emptied.
+     */
+    private void removeEntrances(List<Entrance> border) {
+        for (Entrance entrance : border) {
+            clusters.get(entrance.cluster).remove(entrance);
+            nodes.set(entrance.id, null);
+            freeIds.add(entrance.id);
+        }
+        border.clear();
+    }
+
+    /**
+     * Calculates the distances between every pair of entrances inside a
+     * cluster.
+     *
+     * @param cluster The cluster.
+     */
+    private void linkCluster(int cluster) {
+        List<Entrance> entrances = clusters.get(cluster);
+        for (Entrance entrance : entrances) {
+            searchCluster(entrance.cell, -1);
+
+            int count = 0;
+            Entrance[] links = new Entrance[entrances.size()];
+            int[] costs = new int[entrances.size()];
+            for (Entrance other : entrances) {
+                int distance = localDistance(other.cell);
+                if (other != entrance && distance != -1) {
+                    links[count] = other;
+                    costs[count] = distance;
+                    count++;
+                }
+            }
+
+            entrance.links = Arrays.copyOf(links, count);
+            entrance.costs = Arrays.copyOf(costs, count);
+        }
+    }
+
+    /**
+     * Finds a path between two points.
+     *
+     * @param start The start point inside the map.
+     * @param end The end point inside the map different from the start.
+     * @return The path. If a suitable path couldn't be found, only the start
+     *         point will be included.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same.
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public Point2D[] getPath(Point2D start, Point2D end) {
+        PathBuffer path = new PathBuffer();
+        findPath(start, end, path);
+        return path.toArray();
+    }
+
+    /**
+     * Finds a path between two points, storing it in the given buffer.
+     *
+     * @param start The start point inside the map.
+     * @param end The end point inside the map different from the start.
+     * @param out The buffer to store the path in. It is cleared first. If a
+     *            suitable path couldn't be found, only the start point will be
+     *            included.
+     * @return true if a path was found.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same.
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public boolean findPath(Point2D start, Point2D end, PathBuffer out) {
+        checkRange(start);
+        checkRange(end);
+        if (start.equals(end)) {
+            throw new IllegalArgumentException("End point is the same as the"
+                                               + " start point.");
+        }
+
+        int startCell = start.getX() * cols + start.getY();
+        int endCell = end.getX() * cols + end.getY();
+        expanded = 0;
+        out.clear();
+        out.add(start.getX(), start.getY());
+        if (map.isBlocked(startCell)) {
+            return false;
+        }
+
+        int[] route = searchAbstract(startCell, endCell);
+        if (route == null) {
+            return false;
+        }
+
+        // Fill in the cells between consecutive nodes of the route
+        for (int i = 1; i < route.length; i++) {
+            int from = route[i - 1];
+            int to = route[i];
+            if (clusterOf(from) != clusterOf(to)) {
+                out.add(to / cols, to % cols);
+            } else if (from != to) {
+                refine(from, to, endCell, out);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Searches the abstract graph with A* for a route between two cells.
+     * The start and end cells are temporary nodes linked to the entrances of
+     * their clusters, and to each other if they share a cluster. A blocked
+     * end cell can't be passed through, so it is linked through its open
+     * neighbors instead, which may lie in other clusters.
+     *
+     * @param startCell The index of the start cell.
+     * @param endCell The index of the end cell, which may be blocked.
+     * @return The cells of the route's nodes, or {@code null} if there isn't
+     *         one.
+     */
+    private int[] searchAbstract(int startCell, int endCell) {
+        int startNode = nodes.size();
+        int endNode = startNode + 1;
+        int nodeCount = startNode + 2;
+
+        // The cells a route can finish at, and the steps left from each
+        int[] targets;
+        int step;
+        if (map.isBlocked(endCell)) {
+            targets = openNeighbors(endCell);
+            step = 1;
+        } else {
+            targets = new int[]{endCell};
+            step = 0;
+        }
+
+        // Link the targets to the entrances of their clusters. Only a few
+        // entrances are linked, and their costs only depend on their cells,
+        // so they are kept by cell instead of in arrays over every node
+        PointIntMap endCosts = new PointIntMap();
+        PointIntMap endVias = new PointIntMap();
+        for (int target : targets) {
+            searchCluster(target, -1);
+            for (Entrance entrance : clusters.get(clusterOf(target))) {
+                int distance = localDistance(entrance.cell);
+                int x = entrance.cell / cols;
+                int y = entrance.cell % cols;
+                int cost = endCosts.get(x, y, -1);
+                if (distance != -1 && (cost == -1 || distance + step < cost)) {
+                    endCosts.put(x, y, distance + step, -1);
+                    endVias.put(x, y, target, -1);
+                }
+            }
+        }
+
+        // Link the start cell to the entrances of its cluster and the end
+        int startCluster = clusterOf(startCell);
+        List<Entrance> startEntrances = clusters.get(startCluster);
+        int[] startCosts = new int[startEntrances.size()];
+        searchCluster(startCell, -1);
+        for (int i = 0; i < startCosts.length; i++) {
+            startCosts[i] = localDistance(startEntrances.get(i).cell);
+        }
+
+        int direct = -1;
+        int directVia = -1;
+        for (int target : targets) {
+            int distance = clusterOf(target) == startCluster
+                           ? localDistance(target) : -1;
+            if (distance != -1 && (direct == -1 || distance + step < direct)) {
+                direct = distance + step;
+                directVia = target;
+            }
+        }
+
+        int[] distances = new int[nodeCount];
+        int[] parents = new int[nodeCount];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        IntHeap open = new IntHeap(nodeCount);
+
+        distances[startNode] = 0;
+        parents[startNode] = -1;
+        open.add(startNode, estimate(startCell, endCell));
+        while (!open.isEmpty()) {
+            int node = open.poll();
+            if (node == endNode) {
+                break;
+            }
+            expanded++;
+
+            int distance = distances[node];
+            if (node == startNode) {
+                for (int i = 0; i < startCosts.length; i++) {
+                    relax(open, distances, parents, node,
+                          startEntrances.get(i).id, distance, startCosts[i],
+                          endCell);
+                }
+
+                if (direct != -1) {
+                    relaxEnd(open, distances, parents, node, endNode,
+                             distance + direct);
+                }
+                continue;
+            }
+
+            Entrance entrance = nodes.get(node);
+            relax(open, distances, parents, node, entrance.partner.id,
+                  distance, 1, endCell);
+            for (int i = 0; i < entrance.links.length; i++) {
+                relax(open, distances, parents, node, entrance.links[i].id,
+                      distance, entrance.costs[i], endCell);
+            }
+
+            int endCost = endCosts.get(entrance.cell / cols,
+                                       entrance.cell % cols, -1);
+            if (endCost != -1) {
+                relaxEnd(open, distances, parents, node, endNode,
+                         distance + endCost);
+            }
+        }
+
+        if (distances[endNode] == Integer.MAX_VALUE) {
+            return null;
+        }
+
+        // The last node before the end leads to it through one of the targets
+        int last = parents[endNode];
+        int via = directVia;
+        if (last != startNode) {
+            int cell = nodes.get(last).cell;
+            via = endVias.get(cell / cols, cell % cols, -1);
+        }
+        int length = via != endCell ? 1 : 0;
+        for (int node = endNode; node != -1; node = parents[node]) {
+            length++;
+        }
+
+        int[] route = new int[length];
+        for (int node = endNode; node != -1; node = parents[node]) {
+            length--;
+            if (node == startNode) {
+                route[length] = startCell;
+            } else if (node == endNode) {
+                route[length] = endCell;
+                if (via != endCell) {
+                    length--;
+                    route[length] = via;
+                }
+            } else {
+                route[length] = nodes.get(node).cell;
+            }
+        }
+
+        return route;
+    }
+
+    /**
+     * Returns the open neighbors of a cell.
+     *
+     * @param index The index of the cell.
+     * @return The indices of the neighbors that aren't blocked.
+     */
+    private int[] openNeighbors(int index) {
+        int x = index / cols;
+        int y = index % cols;
+        int[] neighbors = new int[4];
+        int count = 0;
+
+        if (y != cols - 1 && !map.isBlocked(index + 1)) {
+            neighbors[count++] = index + 1;    // North
+        }
+
+        if (y != 0 && !map.isBlocked(index - 1)) {
+            neighbors[count++] = index - 1;    // South
+        }
+
+        if (x != rows - 1 && !map.isBlocked(index + cols)) {
+            neighbors[count++] = index + cols; // East
+        }
+
+        if (x != 0 && !map.isBlocked(index - cols)) {
+            neighbors[count++] = index - cols; // West
+        }
+
+        return Arrays.copyOf(neighbors, count);
+    }
+
+    /**
+     * Lowers the distance of an entrance node if the route through another
+     * node is shorter.
+     *
+     * @param open The nodes waiting to be expanded.
+     * @param distances The distances of the nodes from the start.
+     * @param parents The node each node was reached from.
+     * @param node The expanded node.
+     * @param neighbor The id of the neighboring entrance.
+     * @param distance The distance of the expanded node.
+     * @param cost The cost of the edge between them.
+     * @param endCell The index of the end cell.
+     */
+    private void relax(IntHeap open, int[] distances, int[] parents, int node,
+                       int neighbor, int distance, int cost, int endCell) {
+        if (cost == -1 || distance + cost >= distances[neighbor]) {
+            return;
+        }
+
+        distances[neighbor] = distance + cost;
+        parents[neighbor] = node;
+        int cell = nodes.get(neighbor).cell;
+        open.add(neighbor, distance + cost + estimate(cell, endCell));
+    }
+
+    /**
+     * Lowers the distance of the end node if the route through another node
+     * is shorter.
+     *
+     * @param open The nodes waiting to be expanded.
+     * @param distances The distances of the nodes from the start.
+     * @param parents The node each node was reached from.
+     * @param node The expanded node.
+     * @param endNode The id of the end node.
+     * @param distance The distance of the end node through the expanded node.
+     */
+    private void relaxEnd(IntHeap open, int[] distances, int[] parents,
+                          int node, int endNode, int distance) {
+        if (distance < distances[endNode]) {
+            distances[endNode] = distance;
+            parents[endNode] = node;
+            open.add(endNode, distance);
+        }
+    }
+
+    /**
+     * Finds the cells between two cells of the same cluster and adds them to
+     * a path, not including the first cell.
+     *
+     * @param from The index of the first cell.
+     * @param to The index of the last cell.
+     * @param endCell The index of the end cell, which may be blocked.
+     * @param out The buffer to add the cells to.
+     */
+    private void refine(int from, int to, int endCell, PathBuffer out) {
+        // Search from the last cell so the first can follow the distances
+        searchCluster(to, endCell);
+
+        int cluster = clusterOf(from);
+        int index = from;
+        while (index != to) {
+            index = nextLocal(index, cluster);
+            out.add(index / cols, index % cols);
+        }
+    }
+
+    /**
+     * Finds the neighbor of a cell that is closest to the source of the last
+     * search inside its cluster.
+     *
+     * @param index The index of the cell.
+     * @param cluster The cluster the search was run in.
+     * @return The index of the neighbor.
+     */
+    private int nextLocal(int index, int cluster) {
+        int x = index / cols;
+        int y = index % cols;
+        int distance = localDistance(index);
+
+        if (y != cols - 1 && clusterOf(index + 1) == cluster
+            && localDistance(index + 1) == distance - 1) {
+            return index + 1;
+        } else if (y != 0 && clusterOf(index - 1) == cluster
+                   && localDistance(index - 1) == distance - 1) {
+            return index - 1;
+        } else if (x != 0 && clusterOf(index - cols) == cluster
+                   && localDistance(index - cols) == distance - 1) {
+            return index - cols;
+        }
+
+        return index + cols;
+    }
+
+    /**
+     * Runs a breadth-first search from a cell without leaving its cluster.
+     * The distances can then be read with {@link #localDistance(int)}.
+     *
+     * @param source The index of the cell to search from.
+     * @param allowed The index of a cell that may be entered even if it is
+     *                blocked, or {@code -1}.
+     */
+    private void searchCluster(int source, int allowed) {
+        int cluster = clusterOf(source);
+        int fromX = (cluster / clusterCols) * clusterSize;
+        int fromY = (cluster % clusterCols) * clusterSize;
+        int toX = Math.min(rows, fromX + clusterSize);
+        int toY = Math.min(cols, fromY + clusterSize);
+
+        Arrays.fill(localDistances, -1);
+        localQueue.clear();
+        localDistances[localIndex(source)] = 0;
+        localQueue.add(source);
+        while (!localQueue.isEmpty()) {
+            int index = localQueue.poll();
+            int x = index / cols;
+            int y = index % cols;
+            int distance = localDistances[localIndex(index)] + 1;
+
+            if (y + 1 < toY) {
+                visitLocal(index + 1, distance, allowed);    // North
+            }
+
+            if (y > fromY) {
+                visitLocal(index - 1, distance, allowed);    // South
+            }
+
+            if (x + 1 < toX) {
+                visitLocal(index + cols, distance, allowed); // East
+            }
+
+            if (x > fromX) {
+                visitLocal(index - cols, distance, allowed); // West
+            }
+        }
+    }
+
+    /**
+     * Visits a cell during a search inside a cluster.
+     *
+     * @param index The index of the cell.
+     * @param distance The distance of the cell from the source.
+     * @param allowed The index of a cell that may be entered even if it is
+     *                blocked.
+     */
+    private void visitLocal(int index, int distance, int allowed) {
+        int local = localIndex(index);
+        if (localDistances[local] == -1
+            && (index == allowed || !map.isBlocked(index))) {
+            localDistances[local] = distance;
+
+            // Nothing is reached through a blocked cell
+            if (!map.isBlocked(index)) {
+                localQueue.add(index);
+            }
+        }
+    }
+
+    /**
+     * Returns the distance of a cell found by the last search inside a
+     * cluster.
+     *
+     * @param index The index of a cell in the searched cluster.
+     * @return The distance, or {@code -1} if the cell wasn't reached.
+     */
+    private int localDistance(int index) {
+        return localDistances[localIndex(index)];
+    }
+
+    /**
+     * Returns the position of a cell within its cluster.
+     *
+     * @param index The index of the cell.
+     * @return The position of the cell in its cluster.
+     */
+    private int localIndex(int index) {
+        int x = index / cols;
+        int y = index % cols;
+        return (x % clusterSize) * clusterSize + (y % clusterSize);
+    }
+
+    /**
+     * Returns the cluster a cell belongs to.
+     *
+     * @param index The index of the cell.
+     * @return The cluster.
+     */
+    private int clusterOf(int index) {
+        int x = index / cols;
+        int y = index % cols;
+        return (x / clusterSize) * clusterCols + (y / clusterSize);
+    }
+
+    /**
+     * Estimates the distance between two cells.
+     *
+     * @param from The index of the first cell.
+     * @param to The index of the second cell.
+     * @return The Manhattan distance between the cells.
+     */
+    private int estimate(int from, int to) {
+        return Math.abs(from / cols - to / cols)
+               + Math.abs(from % cols - to % cols);
+    }
+
+    /**
+     * Makes sure a point is inside of the map.
+     *
+     * @param p The point.
+     * @throws IndexOutOfBoundsException If the point is outside of the map.
+     */
+    private void checkRange(Point2D p) {
+        int x = p.getX();
+        int y = p.getY();
+        if (x < 0 || x >= rows || y < 0 || y >= cols) {
+            throw new IndexOutOfBoundsException("Point " + p + " outside of"
+                                                + " grid range.");
+        }
+    }
+
+    /**
+     * Returns the number of clusters the map is split into.
+     *
+     * @return The cluster count.
+     */
+    public int getClusterCount() {
+        return clusterRows * clusterCols;
+    }
+
+    /**
+     * Returns the number of entrances in the abstract graph.
+     *
+     * @return The entrance count.
+     */
+    public int getEntranceCount() {
+        return nodes.size() - freeIds.size();
+    }
+
+    /**
+     * Returns the number of abstract nodes the last query expanded.
+     *
+     * @return The number of expanded nodes.
+     */
+    public long getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * A node of the abstract graph: a cell next to the border of its cluster
+     * that can step into a neighboring cluster.
+     */
+    private static final class Entrance {
+        /** The position of the entrance in the list of nodes. */
+        final int id;
+        /** The index of the cell. */
+        final int cell;
+        /** The cluster the cell belongs to. */
+        final int cluster;
+        /** The entrance on the other side of the border. */
+        Entrance partner;
+        /** The entrances reachable inside the cluster. */
+        Entrance[] links = new Entrance[0];
+        /** The distances to the linked entrances. */
+        int[] costs = new int[0];
+
+        /**
+         * Creates an entrance.
+         *
+         * @param id The position of the entrance in the list of nodes.
+         * @param cell The index of the cell.
+         * @param cluster The cluster the cell belongs to.
+         */
+        Entrance(int id, int cell, int cluster) {
+            this.id = id;
+            this.cell = cell;
+            this.cluster = cluster;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.syedraza.WaveFront;
+
+/**
+ * Methods a grid should implement so that a {@link PathFinder} can read and
+ * write the values of its cells by index instead of by following linked
+ * nodes.
+ * <p>
+ * The cell at point (x, y) has the index {@code x * getCols() + y}.
+ */
+public interface IndexedGrid extends ObstacleMap {
+    /**
+     * Returns the value of the cell at the given index.
+     *
+     * @param index The index of the cell.
+     * @return The value.
+     */
+    int getValue(int index);
+
+    /**
+     * Sets the value of the cell at the given index.
+     *
+     * @param index The index of the cell.
+     * @param value The integer value to set.
+     */
+    void setValue(int index, int value);
+
+    /**
+     * Determines if a {@link PathFinder} should copy the distances it
+     * calculates into the grid. Grids that can't hold them, or would grow
+     * by holding them, only have their blocked cells read.
+     *
+     * @return true by default.
+     */
+    default boolean storesDistances() {
+        return true;
+    }
+
+    /**
+     * Resets every cell except blocked cells.
+     */
+    void partialReset();
+
+    /**
+     * Resets every cell.
+     */
+    void fullReset();
+}
@@ -0,0 +1,258 @@
+package com.syedraza.WaveFront;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of cell indices ordered by a {@code long} priority.
+ * <p>
+ * The heap remembers where each cell is stored, so a cell's priority can be
+ * changed or the cell removed without searching for it. Cells with the same
+ * priority are ordered by their index, which keeps searches deterministic.
+ * Nothing is allocated unless the heap has to grow.
+ */
+final class IntHeap {
+    /** The cells in heap order. */
+    private int[] cells;
+    /** The priorities of the cells in heap order. */
+    private long[] priorities;
+    /** The position of each cell in the heap, or {@code -1}. */
+    private final int[] positions;
+    /** The number of cells in the heap. */
+    private int size;
+
+    /**
+     * Creates an empty heap for cell indices below the given limit.
+     *
+     * @param cellCount The number of cells in the map.
+     */
+    IntHeap(int cellCount) {
+        cells = new int[64];
+        priorities = new long[64];
+        positions = new int[cellCount];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Packs a priority that orders by a total first and breaks ties with a
+     * second value. Both are compared as signed {@code int}s, except that a
+     * negative tie breaker orders after every other one.
+     *
+     * @param total The value compared first.
+     * @param tieBreak The value compared when the totals are equal.
+     * @return The priority.
+     */
+    static long priority(int total, int tieBreak) {
+        // Mask the tie breaker so a negative one can't overwrite the total
+        return ((long) total << 32) | (tieBreak & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds a cell to the heap, or changes its priority if it is already in
+     * the heap.
+     *
+     * @param cell The index of the cell.
+     * @param priority The priority, with lower priorities polled first.
+     */
+    void add(int cell, long priority) {
+        int position = positions[cell];
+        if (position != -1) {
+            long old = priorities[position];
+            priorities[position] = priority;
+            if (priority < old) {
+                siftUp(position);
+            } else {
+                siftDown(position);
+            }
+
+            return;
+        }
+
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, 2 * size);
+            priorities = Arrays.copyOf(priorities, 2 * size);
+        }
+
+        cells[size] = cell;
+        priorities[size] = priority;
+        positions[cell] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Removes and returns the cell with the lowest priority.
+     *
+     * @return The index of the cell.
+     * @throws NoSuchElementException If the heap is empty.
+     */
+    int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty.");
+        }
+
+        int cell = cells[0];
+        removeAt(0);
+        return cell;
+    }
+
+    /**
+     * Removes a cell from the heap if it is in it.
+     *
+     * @param cell The index of the cell.
+     */
+    void remove(int cell) {
+        int position = positions[cell];
+        if (position != -1) {
+            removeAt(position);
+        }
+    }
+
+    /**
+     * Returns the lowest priority in the heap.
+     *
+     * @return The priority.
+     * @throws NoSuchElementException If the heap is empty.
+     */
+    long peekPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty.");
+        }
+
+        return priorities[0];
+    }
+
+    /**
+     * Determines if a cell is in the heap.
+     *
+     * @param cell The index of the cell.
+     * @return true if the cell is in the heap.
+     */
+    boolean contains(int cell) {
+        return positions[cell] != -1;
+    }
+
+    /**
+     * Returns the number of cells in the heap.
+     *
+     * @return The size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Determines if the heap has no cells.
+     *
+     * @return true if the heap is empty.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every cell from the heap. This only touches the cells that are
+     * still in the heap.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[cells[i]] = -1;
+        }
+        size = 0;
+    }
+
+    /**
+     * Removes the cell at a position in the heap.
+     *
+     * @param position The position of the cell.
+     */
+    private void removeAt(int position) {
+        positions[cells[position]] = -1;
+        size--;
+
+        if (position != size) {
+            cells[position] = cells[size];
+            priorities[position] = priorities[size];
+            positions[cells[position]] = position;
+            siftDown(position);
+            siftUp(position);
+        }
+    }
+
+    /**
+     * Moves a cell towards the top of the heap until its parent comes
+     * before it.
+     *
+     * @param position The position of the cell.
+     */
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!before(position, parent)) {
+                break;
+            }
+
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    /**
+     * Moves a cell towards the bottom of the heap until it comes before its
+     * children.
+     *
+     * @param position The position of the cell.
+     */
+    private void siftDown(int position) {
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+
+            if (child + 1 < size && before(child + 1, child)) {
+                child++;
+            }
+
+            if (!before(child, position)) {
+                break;
+            }
+
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    /**
+     * Determines if the cell at one position should be polled before the
+     * cell at another.
+     *
+     * @param a The first position.
+     * @param b The second position.
+     * @return true if the first cell comes first.
+     */
+    private boolean before(int a, int b) {
+        if (priorities[a] != priorities[b]) {
+            return priorities[a] < priorities[b];
+        }
+
+        return cells[a] < cells[b];
+    }
+
+    /**
+     * Swaps the cells at two positions.
+     *
+     * @param a The first position.
+     * @param b The second position.
+     */
+    private void swap(int a, int b) {
+        int cell = cells[a];
+        long priority = priorities[a];
+        cells[a] = cells[b];
+        priorities[a] = priorities[b];
+        cells[b] = cell;
+        priorities[b] = priority;
+        positions[cells[a]] = a;
+        positions[cells[b]] = b;
+    }
+}
@@ -0,0 +1,104 @@
+package com.syedraza.WaveFront;
+
+/**
+ * A first-in-first-out queue of {@code int}s backed by a ring buffer.
+ * <p>
+ * Unlike a {@code Queue<Integer>}, adding and polling values doesn't box them
+ * or allocate queue nodes, so a queue can be reused between fills without
+ * creating any garbage. The queue grows if it runs out of room.
+ */
+final class IntQueue {
+    /** The buffer holding queued values. */
+    private int[] buffer;
+    /** The position of the head of the queue in the buffer. */
+    private int head;
+    /** The number of values in the queue. */
+    private int size;
+
+    /**
+     * Creates a queue with the given initial capacity.
+     *
+     * @param capacity The number of values the queue can hold before growing.
+     */
+    IntQueue(int capacity) {
+        buffer = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Adds a value to the tail of the queue.
+     *
+     * @param value The value to add.
+     */
+    void add(int value) {
+        if (size == buffer.length) {
+            grow();
+        }
+
+        int tail = head + size;
+        if (tail >= buffer.length) {
+            tail -= buffer.length;
+        }
+
+        buffer[tail] = value;
+        size++;
+    }
+
+    /**
+     * Removes and returns the value at the head of the queue.
+     *
+     * @return The value.
+     * @throws java.util.NoSuchElementException If the queue is empty.
+     */
+    int poll() {
+        if (size == 0) {
+            throw new java.util.NoSuchElementException("The queue is empty.");
+        }
+
+        int value = buffer[head];
+        head++;
+        if (head == buffer.length) {
+            head = 0;
+        }
+        size--;
+
+        return value;
+    }
+
+    /**
+     * Returns the number of values in the queue.
+     *
+     * @return The size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Determines if the queue has no values.
+     *
+     * @return true if the queue is empty.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every value from the queue.
+     */
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Doubles the capacity of the buffer, unwrapping the queued values.
+     */
+    private void grow() {
+        int[] larger = new int[buffer.length * 2];
+        int firstPart = Math.min(size, buffer.length - head);
+        System.arraycopy(buffer, head, larger, 0, firstPart);
+        System.arraycopy(buffer, 0, larger, firstPart, size - firstPart);
+        buffer = larger;
+        head = 0;
+    }
+}
@@ -0,0 +1,267 @@
+package com.syedraza.WaveFront;
+
+import java.util.Arrays;
+
+/**
+ * Finds the shortest path between two points with Jump Point Search, for
+ * maps where every step costs the same.
+ * <p>
+ * On open parts of a map, many shortest paths of the same length lead to
+ * the same cell and a plain search expands all of them. Jump Point Search
+ * instead scans in a straight line from each expanded cell and only stops at
+ * the end point or at cells where an obstacle opens up a new direction, the
+ * jump points. Only jump points are queued and expanded, which is usually a
+ * small fraction of the cells an {@link AStarPathFinder} or a
+ * {@link PathFinder} fill touches. Steps are only taken north, south, east
+ * and west.
+ * <p>
+ * Jump points are ordered like the cells of an AStarPathFinder using the
+ * Manhattan distance, so the same query always returns the same path.
+ */
+public class JumpPointPathFinder extends AbstractPathFinder {
+    /** The jump points waiting to be expanded. */
+    private final IntHeap open;
+    /** The query number each cell was last reached in. */
+    private final int[] reached;
+    /** The distance of each reached jump point from the start point. */
+    private final int[] distances;
+    /** The jump point each jump point was reached from. */
+    private final int[] parents;
+    /** The number of the current query. */
+    private int query;
+    /** The index of the end cell of the current query. */
+    private int endIndex;
+    /** The number of cells scanned while jumping in the last search. */
+    private long scanned;
+
+    /**
+     * Creates a pathfinder with the given map and points and finds the path
+     * between them.
+     *
+     * @param map The map to read blocked cells from.
+     * @param start The start point inside the map different from the end.
+     * @param end The end point inside the map different from the start.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public JumpPointPathFinder(ObstacleMap map, Point2D start, Point2D end) {
+        super(map, start, end);
+
+        int cells = rows * cols;
+        open = new IntHeap(cells);
+        reached = new int[cells];
+        distances = new int[cells];
+        parents = new int[cells];
+
+        update();
+    }
+
+    @Override
+    protected boolean search(int startIndex, int endIndex, PathBuffer out) {
+        if (query == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            query = 0;
+        }
+        query++;
+
+        this.endIndex = endIndex;
+        scanned = 0;
+        open.clear();
+        reach(startIndex, -1, 0);
+
+        while (!open.isEmpty()) {
+            int index = open.poll();
+            if (index == endIndex) {
+                buildPath(endIndex, out);
+                return true;
+            }
+
+            expanded++;
+            expand(index);
+        }
+
+        out.add(startIndex / cols, startIndex % cols);
+        return false;
+    }
+
+    /**
+     * Jumps from an expanded jump point in every direction that isn't
+     * pruned, reaching the jump points that are found.
+     *
+     * @param index The index of the expanded jump point.
+     */
+    private void expand(int index) {
+        int x = index / cols;
+        int y = index % cols;
+        int parent = parents[index];
+
+        if (parent == -1) {
+            jumpFrom(index, x, y, 0, 1);
+            jumpFrom(index, x, y, 0, -1);
+            jumpFrom(index, x, y, 1, 0);
+            jumpFrom(index, x, y, -1, 0);
+            return;
+        }
+
+        int dx = Integer.signum(x - parent / cols);
+        int dy = Integer.signum(y - parent % cols);
+        if (dx != 0) {
+            // Keep going and turn towards any side that opened up
+            jumpFrom(index, x, y, dx, 0);
+            jumpFrom(index, x, y, 0, 1);
+            jumpFrom(index, x, y, 0, -1);
+        } else {
+            jumpFrom(index, x, y, 0, dy);
+            jumpFrom(index, x, y, 1, 0);
+            jumpFrom(index, x, y, -1, 0);
+        }
+    }
+
+    /**
+     * Jumps from a jump point in one direction and reaches the jump point
+     * found, if any.
+     *
+     * @param index The index of the jump point.
+     * @param x The x coordinate of the jump point.
+     * @param y The y coordinate of the jump point.
+     * @param dx The step to take along the x axis.
+     * @param dy The step to take along the y axis.
+     */
+    private void jumpFrom(int index, int x, int y, int dx, int dy) {
+        int jumpPoint = jump(x + dx, y + dy, dx, dy);
+        if (jumpPoint == -1) {
+            return;
+        }
+
+        int length = Math.abs(jumpPoint / cols - x)
+                     + Math.abs(jumpPoint % cols - y);
+        int distance = distances[index] + length;
+        if (reached[jumpPoint] != query || distance < distances[jumpPoint]) {
+            reach(jumpPoint, index, distance);
+        }
+    }
+
+    /**
+     * Scans in a straight line until a jump point is found.
+     * <p>
+     * A cell is a jump point if it is the end point or if a cell to its side
+     * is open while the cell behind that one is blocked, since a shortest
+     * path may turn there. While scanning along the y axis, a cell is also a
+     * jump point if a jump along the x axis from it finds one.
+     *
+     * @param x The x coordinate of the first cell to scan.
+     * @param y The y coordinate of the first cell to scan.
+     * @param dx The step to take along the x axis.
+     * @param dy The step to take along the y axis.
+     * @return The index of the jump point or {@code -1} if a blocked cell or
+     *         the edge of the map was reached first.
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        while (isOpen(x, y)) {
+            int index = x * cols + y;
+            scanned++;
+
+            if (index == endIndex) {
+                return index;
+            }
+
+            if (dx != 0) {
+                if ((isOpen(x, y - 1) && !isOpen(x - dx, y - 1))
+                    || (isOpen(x, y + 1) && !isOpen(x - dx, y + 1))) {
+                    return index;
+                }
+            } else {
+                if ((isOpen(x - 1, y) && !isOpen(x - 1, y - dy))
+                    || (isOpen(x + 1, y) && !isOpen(x + 1, y - dy))) {
+                    return index;
+                }
+
+                if (jump(x + 1, y, 1, 0) != -1 || jump(x - 1, y, -1, 0) != -1) {
+                    return index;
+                }
+            }
+
+            x += dx;
+            y += dy;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Determines if a cell is inside of the map and can be stepped on. The
+     * end cell can always be stepped on.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the cell is open.
+     */
+    private boolean isOpen(int x, int y) {
+        if (x < 0 || x >= rows || y < 0 || y >= cols) {
+            return false;
+        }
+
+        int index = x * cols + y;
+        return index == endIndex || !map.isBlocked(index);
+    }
+
+    /**
+     * Records the route to a jump point and queues it for expansion.
+     *
+     * @param index The index of the jump point.
+     * @param parent The index of the jump point it was reached from.
+     * @param distance The distance of the jump point from the start point.
+     */
+    private void reach(int index, int parent, int distance) {
+        int x = index / cols;
+        int y = index % cols;
+        int estimate = Math.abs(endIndex / cols - x)
+                       + Math.abs(endIndex % cols - y);
+
+        reached[index] = query;
+        distances[index] = distance;
+        parents[index] = parent;
+
+        // Order by total estimate, then by closeness to the end point
+        open.add(index, IntHeap.priority(distance + estimate, estimate));
+    }
+
+    /**
+     * Follows the jump points back from the end cell to the start, filling
+     * in the straight lines between them.
+     *
+     * @param endIndex The index of the end cell.
+     * @param out The buffer to store the path in.
+     */
+    private void buildPath(int endIndex, PathBuffer out) {
+        int index = endIndex;
+        out.add(index / cols, index % cols);
+
+        for (int parent = parents[index]; parent != -1;
+             index = parent, parent = parents[index]) {
+            int x = index / cols;
+            int y = index % cols;
+            int dx = Integer.signum(parent / cols - x);
+            int dy = Integer.signum(parent % cols - y);
+
+            do {
+                x += dx;
+                y += dy;
+                out.add(x, y);
+            } while (x * cols + y != parent);
+        }
+        out.reverse();
+    }
+
+    /**
+     * Returns the number of cells scanned while jumping during the last
+     * search, including the cells that became jump points.
+     *
+     * @return The number of scanned cells.
+     */
+    public long getScanned() {
+        return scanned;
+    }
+}
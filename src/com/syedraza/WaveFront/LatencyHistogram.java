@@ -0,0 +1,177 @@
+package com.syedraza.WaveFront;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of durations with buckets that double in size.
+ * <p>
+ * The first bucket holds durations of up to one microsecond and each bucket
+ * after it holds durations up to twice as long as the one before, up to
+ * about two minutes. Longer durations are counted in a final overflow
+ * bucket. Recording a duration is a few atomic additions and never
+ * allocates, so it can be done for every query.
+ * <p>
+ * Percentiles are estimated as the upper bound of the bucket they fall in,
+ * so they are never more than twice the true value.
+ */
+public class LatencyHistogram {
+    /** The number of bounded buckets. */
+    public static final int BUCKETS = 28;
+    /** The upper bound of the first bucket, in nanoseconds. */
+    private static final long FIRST_BOUND = 1000;
+
+    /** The number of durations in each bucket, then the overflow bucket. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS + 1);
+    /** The number of durations recorded. */
+    private final LongAdder count = new LongAdder();
+    /** The total of the durations recorded, in nanoseconds. */
+    private final LongAdder sum = new LongAdder();
+    /** The longest duration recorded, in nanoseconds. */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds. Negative durations are
+     *              counted as zero.
+     */
+    public void record(long nanos) {
+        long duration = Math.max(nanos, 0);
+        int bucket = 64 - Long.numberOfLeadingZeros((Math.max(duration, 1)
+                                                     - 1) / FIRST_BOUND);
+        counts.incrementAndGet(Math.min(bucket, BUCKETS));
+        count.increment();
+        sum.add(duration);
+        max.accumulateAndGet(duration, Math::max);
+    }
+
+    /**
+     * Returns the upper bound of a bucket.
+     *
+     * @param bucket The position of the bucket, below {@link #BUCKETS}.
+     * @return The longest duration the bucket holds, in nanoseconds.
+     * @throws IndexOutOfBoundsException If there is no bucket at the
+     *         position.
+     */
+    public static long getBucketBound(int bucket) {
+        if (bucket < 0 || bucket >= BUCKETS) {
+            throw new IndexOutOfBoundsException("Bucket " + bucket
+                                                + " outside of histogram.");
+        }
+
+        return FIRST_BOUND << bucket;
+    }
+
+    /**
+     * Returns the number of durations in a bucket.
+     *
+     * @param bucket The position of the bucket, or {@link #BUCKETS} for the
+     *               overflow bucket.
+     * @return The count.
+     * @throws IndexOutOfBoundsException If there is no bucket at the
+     *         position.
+     */
+    public long getBucketCount(int bucket) {
+        if (bucket < 0 || bucket > BUCKETS) {
+            throw new IndexOutOfBoundsException("Bucket " + bucket
+                                                + " outside of histogram.");
+        }
+
+        return counts.get(bucket);
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the total of the durations recorded.
+     *
+     * @return The total in nanoseconds.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the longest duration recorded.
+     *
+     * @return The duration in nanoseconds, or 0 if none were recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Estimates a percentile of the durations recorded.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The upper bound of the bucket holding the percentile, or the
+     *         longest duration if it is in the overflow bucket, in
+     *         nanoseconds. 0 if no durations were recorded.
+     * @throws IllegalArgumentException If the percentile is out of range.
+     */
+    public long getPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Invalid percentile: "
+                                               + percentile + ".");
+        }
+
+        long total = 0;
+        long[] snapshot = new long[BUCKETS + 1];
+        for (int i = 0; i <= BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(getBucketBound(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Writes the histogram in the Prometheus text format, with durations in
+     * seconds and cumulative buckets.
+     *
+     * @param out The builder to append to.
+     * @param name The name of the metric.
+     * @param help The description of the metric.
+     */
+    void export(StringBuilder out, String name, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help)
+           .append('\n');
+        out.append("# TYPE ").append(name).append(" histogram\n");
+
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts.get(i);
+            out.append(name).append("_bucket{le=\"")
+               .append(getBucketBound(i) / 1e9).append("\"} ")
+               .append(cumulative).append('\n');
+        }
+
+        cumulative += counts.get(BUCKETS);
+        out.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative)
+           .append('\n');
+        out.append(name).append("_sum ").append(getSum() / 1e9).append('\n');
+        out.append(name).append("_count ").append(cumulative).append('\n');
+    }
+}
@@ -7,7 +7,7 @@ package com.syedraza.WaveFront;
  * should only manually modify the values of the nodes in order to
  * (un)block them, which will require updating the PathFinder.
  */
-public class LinkedGrid extends Grid {
+public class LinkedGrid extends Grid implements IndexedGrid {
     /**
      * Creates a linked grid of the specified size, linking each node to each
      * other.
@@ -48,6 +48,7 @@ public class LinkedGrid extends Grid {
     /**
      * Resets every node except blocked nodes.
      */
+    @Override
     public void partialReset() {
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
@@ -61,6 +62,7 @@ public class LinkedGrid extends Grid {
     /**
      * Resets every node.
      */
+    @Override
     public void fullReset() {
         for (int i = 0; i < rows; i++) {
             for (int j = 0; j < cols; j++) {
@@ -0,0 +1,595 @@
+package com.syedraza.WaveFront;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the blocked cells of maps in a compact binary format.
+ * <p>
+ * A map file starts with a header of big-endian {@code int}s: the magic
+ * number {@code 0x57464D46}, the format version, the number of rows, the
+ * number of columns and the {@link Encoding} of the rows. The rows follow in
+ * order of their x coordinate, and the file ends with the CRC-32 of
+ * everything before it.
+ * <p>
+ * Files are streamed through a small buffer, so they can be read from and
+ * written to any channel. Blocked cells are loaded a run at a time rather
+ * than a node at a time, so even multi-million cell maps load at close to
+ * the speed of the disk.
+ */
+public final class MapFile {
+    /** The number that every map file starts with. */
+    private static final int MAGIC = 0x57464D46;
+    /** The version of the file format. */
+    private static final int FORMAT_VERSION = 1;
+    /** The size of the buffer used to stream files. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The ways the rows of a map file can be stored.
+     */
+    public enum Encoding {
+        /**
+         * Each row is stored as little-endian {@code long}s, where bit
+         * {@code y % 64} of word {@code y / 64} is set if the cell is
+         * blocked. Best for maps with scattered obstacles.
+         */
+        BITS,
+        /**
+         * Each row is stored as the lengths of alternating runs of open and
+         * blocked cells, starting with open, as unsigned variable-length
+         * integers. Rows with no cells have no runs. Best for maps with large
+         * open areas or solid walls.
+         */
+        RUNS
+    }
+
+    /**
+     * Receives the runs of blocked cells read from a file.
+     */
+    private interface RunSink {
+        /**
+         * Blocks a run of cells in one row.
+         *
+         * @param x The x coordinate of the row.
+         * @param fromY The y coordinate of the first blocked cell.
+         * @param toY The y coordinate after the last blocked cell.
+         */
+        void block(int x, int fromY, int toY);
+    }
+
+    /**
+     * Prevents the class from being instantiated.
+     */
+    private MapFile() {
+    }
+
+    /**
+     * Writes the blocked cells of a map to a file, replacing it if it
+     * exists.
+     *
+     * @param map The map to write.
+     * @param file The path of the file.
+     * @param encoding How to store the rows.
+     * @throws IOException If the file couldn't be written.
+     */
+    public static void write(ObstacleMap map, Path file, Encoding encoding)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(map, channel, encoding);
+        }
+    }
+
+    /**
+     * Writes the blocked cells of a map to a channel. The channel is left
+     * open.
+     *
+     * @param map The map to write.
+     * @param channel The channel to write to.
+     * @param encoding How to store the rows.
+     * @throws IOException If the map couldn't be written.
+     */
+    public static void write(ObstacleMap map, WritableByteChannel channel,
+                             Encoding encoding) throws IOException {
+        if (map == null || encoding == null) {
+            throw new NullPointerException("The map or encoding is null.");
+        }
+
+        int rows = map.getRows();
+        int cols = map.getCols();
+        Output out = new Output(channel);
+        out.putHeaderInt(MAGIC);
+        out.putHeaderInt(FORMAT_VERSION);
+        out.putHeaderInt(rows);
+        out.putHeaderInt(cols);
+        out.putHeaderInt(encoding.ordinal());
+
+        for (int x = 0; x < rows; x++) {
+            int first = x * cols;
+            if (encoding == Encoding.BITS) {
+                for (int from = 0; from < cols; from += 64) {
+                    long word = 0;
+                    int to = Math.min(cols, from + 64);
+                    for (int y = from; y < to; y++) {
+                        if (map.isBlocked(first + y)) {
+                            word |= 1L << y;
+                        }
+                    }
+                    out.putLong(word);
+                }
+            } else {
+                boolean blocked = false;
+                int runStart = 0;
+                for (int y = 0; y < cols; y++) {
+                    if (map.isBlocked(first + y) != blocked) {
+                        out.putVarInt(y - runStart);
+                        runStart = y;
+                        blocked = !blocked;
+                    }
+                }
+
+                // A row with no cells has no runs, not an empty one
+                if (cols != 0) {
+                    out.putVarInt(cols - runStart);
+                }
+            }
+        }
+
+        out.finish();
+    }
+
+    /**
+     * Reads a map file into a new linked grid.
+     *
+     * @param file The path of the file.
+     * @return The grid, with its blocked nodes set.
+     * @throws IOException If the file couldn't be read or is corrupt.
+     */
+    public static LinkedGrid readLinkedGrid(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return readLinkedGrid(channel);
+        }
+    }
+
+    /**
+     * Reads a map from a channel into a new linked grid. The channel is left
+     * open.
+     *
+     * @param channel The channel to read from.
+     * @return The grid, with its blocked nodes set.
+     * @throws IOException If the map couldn't be read or is corrupt.
+     */
+    public static LinkedGrid readLinkedGrid(ReadableByteChannel channel)
+            throws IOException {
+        Input in = new Input(channel);
+        int[] size = readHeader(in);
+        LinkedGrid grid = new LinkedGrid(size[0], size[1]);
+        readRows(in, size, grid::blockRun);
+        return grid;
+    }
+
+    /**
+     * Reads a map file into a new flat grid.
+     *
+     * @param file The path of the file.
+     * @return The grid, with its blocked cells set.
+     * @throws IOException If the file couldn't be read or is corrupt.
+     */
+    public static FlatGrid readFlatGrid(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return readFlatGrid(channel);
+        }
+    }
+
+    /**
+     * Reads a map from a channel into a new flat grid. The channel is left
+     * open.
+     *
+     * @param channel The channel to read from.
+     * @return The grid, with its blocked cells set.
+     * @throws IOException If the map couldn't be read or is corrupt.
+     */
+    public static FlatGrid readFlatGrid(ReadableByteChannel channel)
+            throws IOException {
+        Input in = new Input(channel);
+        int[] size = readHeader(in);
+        int cols = size[1];
+        FlatGrid grid = new FlatGrid(size[0], cols);
+        readRows(in, size, (x, fromY, toY) ->
+            grid.blockRun(x * cols + fromY, x * cols + toY));
+        return grid;
+    }
+
+    /**
+     * Reads a map file into a new obstacle layer.
+     *
+     * @param file The path of the file.
+     * @return The layer.
+     * @throws IOException If the file couldn't be read or is corrupt.
+     */
+    public static ObstacleLayer readLayer(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return readLayer(channel);
+        }
+    }
+
+    /**
+     * Reads a map from a channel into a new obstacle layer. The channel is
+     * left open.
+     *
+     * @param channel The channel to read from.
+     * @return The layer.
+     * @throws IOException If the map couldn't be read or is corrupt.
+     */
+    public static ObstacleLayer readLayer(ReadableByteChannel channel)
+            throws IOException {
+        Input in = new Input(channel);
+        int[] size = readHeader(in);
+        int cols = size[1];
+        long[] blocked = new long[(int) (((long) size[0] * cols + 63) >>> 6)];
+        readRows(in, size, (x, fromY, toY) ->
+            setBits(blocked, x * cols + fromY, x * cols + toY));
+        return ObstacleLayer.wrap(size[0], cols, blocked);
+    }
+
+    /**
+     * Sets a range of bits.
+     *
+     * @param bits The words holding the bits.
+     * @param from The first bit to set.
+     * @param to The bit after the last one to set.
+     */
+    private static void setBits(long[] bits, int from, int to) {
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        if (first == last) {
+            bits[first] |= firstMask & lastMask;
+            return;
+        }
+
+        bits[first] |= firstMask;
+        for (int i = first + 1; i < last; i++) {
+            bits[i] = -1L;
+        }
+        bits[last] |= lastMask;
+    }
+
+    /**
+     * Reads and checks the header of a map.
+     *
+     * @param in The input to read from.
+     * @return The number of rows, the number of columns and the encoding.
+     * @throws IOException If the header couldn't be read or is invalid.
+     */
+    private static int[] readHeader(Input in) throws IOException {
+        if (in.getHeaderInt() != MAGIC) {
+            throw new IOException("Not a map file.");
+        }
+
+        int formatVersion = in.getHeaderInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported map file version: "
+                                  + formatVersion + ".");
+        }
+
+        int rows = in.getHeaderInt();
+        int cols = in.getHeaderInt();
+        int encoding = in.getHeaderInt();
+        if (rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IOException("Invalid grid size: " + rows + "x" + cols
+                                  + ".");
+        }
+
+        if (encoding < 0 || encoding >= Encoding.values().length) {
+            throw new IOException("Unknown map encoding: " + encoding + ".");
+        }
+
+        return new int[]{rows, cols, encoding};
+    }
+
+    /**
+     * Reads the rows of a map and checks its checksum.
+     *
+     * @param in The input to read from, positioned after the header.
+     * @param header The number of rows, the number of columns and the
+     *               encoding.
+     * @param sink The sink to give the runs of blocked cells to.
+     * @throws IOException If the rows couldn't be read or are corrupt.
+     */
+    private static void readRows(Input in, int[] header, RunSink sink)
+            throws IOException {
+        int rows = header[0];
+        int cols = header[1];
+        boolean bits = header[2] == Encoding.BITS.ordinal();
+
+        for (int x = 0; x < rows; x++) {
+            if (bits) {
+                for (int from = 0; from < cols; from += 64) {
+                    readWord(in.getLong(), x, from, cols, sink);
+                }
+            } else {
+                boolean blocked = false;
+                int y = 0;
+                while (y < cols) {
+                    int length = in.getVarInt();
+                    if (length > cols - y) {
+                        throw new IOException("Run longer than row " + x
+                                              + ".");
+                    }
+
+                    if (blocked && length != 0) {
+                        sink.block(x, y, y + length);
+                    }
+                    y += length;
+                    blocked = !blocked;
+                }
+            }
+        }
+
+        in.checkChecksum();
+    }
+
+    /**
+     * Gives the runs of blocked cells in a word of a row to a sink.
+     *
+     * @param word The blocked bits of 64 cells.
+     * @param x The x coordinate of the row.
+     * @param from The y coordinate of the first cell of the word.
+     * @param cols The number of columns.
+     * @param sink The sink to give the runs to.
+     */
+    private static void readWord(long word, int x, int from, int cols,
+                                 RunSink sink) {
+        if (cols - from < 64) {
+            word &= (1L << (cols - from)) - 1;
+        }
+
+        while (word != 0) {
+            int start = Long.numberOfTrailingZeros(word);
+            int end = Long.numberOfTrailingZeros(~(word | ((1L << start) - 1)));
+            sink.block(x, from + start, from + end);
+            if (end == 64) {
+                break;
+            }
+            word &= -1L << end;
+        }
+    }
+
+    /**
+     * A buffered output that keeps a running checksum of what it writes.
+     */
+    private static final class Output {
+        /** The channel to write to. */
+        private final WritableByteChannel channel;
+        /** The bytes waiting to be written. */
+        private final ByteBuffer buffer;
+        /** The checksum of the written bytes. */
+        private final CRC32 checksum = new CRC32();
+
+        /**
+         * Creates an output for a channel.
+         *
+         * @param channel The channel to write to.
+         */
+        Output(WritableByteChannel channel) {
+            this.channel = channel;
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+                               .order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Writes a big-endian {@code int} of the header.
+         *
+         * @param value The value.
+         * @throws IOException If the buffer couldn't be flushed.
+         */
+        void putHeaderInt(int value) throws IOException {
+            ensureRoom(4);
+            buffer.putInt(Integer.reverseBytes(value));
+        }
+
+        /**
+         * Writes a little-endian {@code long}.
+         *
+         * @param value The value.
+         * @throws IOException If the buffer couldn't be flushed.
+         */
+        void putLong(long value) throws IOException {
+            ensureRoom(8);
+            buffer.putLong(value);
+        }
+
+        /**
+         * Writes an unsigned variable-length {@code int}, seven bits per
+         * byte starting with the lowest.
+         *
+         * @param value The value, which must not be negative.
+         * @throws IOException If the buffer couldn't be flushed.
+         */
+        void putVarInt(int value) throws IOException {
+            ensureRoom(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        /**
+         * Writes the checksum and flushes the buffer.
+         *
+         * @throws IOException If the buffer couldn't be flushed.
+         */
+        void finish() throws IOException {
+            flush();
+            buffer.putInt(Integer.reverseBytes((int) checksum.getValue()));
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Flushes the buffer if it doesn't have room for some bytes.
+         *
+         * @param bytes The number of bytes.
+         * @throws IOException If the buffer couldn't be flushed.
+         */
+        private void ensureRoom(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        /**
+         * Writes the buffered bytes to the channel.
+         *
+         * @throws IOException If the bytes couldn't be written.
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * A buffered input that keeps a running checksum of what it reads.
+     */
+    private static final class Input {
+        /** The channel to read from. */
+        private final ReadableByteChannel channel;
+        /** The bytes read from the channel but not yet used. */
+        private final ByteBuffer buffer;
+        /** The checksum of the used bytes. */
+        private final CRC32 checksum = new CRC32();
+        /** The position in the buffer up to which the checksum is updated. */
+        private int checked;
+
+        /**
+         * Creates an input for a channel.
+         *
+         * @param channel The channel to read from.
+         */
+        Input(ReadableByteChannel channel) {
+            if (channel == null) {
+                throw new NullPointerException("The channel is null.");
+            }
+
+            this.channel = channel;
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+                               .order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+        }
+
+        /**
+         * Reads a big-endian {@code int} of the header.
+         *
+         * @return The value.
+         * @throws IOException If the value couldn't be read.
+         */
+        int getHeaderInt() throws IOException {
+            require(4);
+            return Integer.reverseBytes(buffer.getInt());
+        }
+
+        /**
+         * Reads a little-endian {@code long}.
+         *
+         * @return The value.
+         * @throws IOException If the value couldn't be read.
+         */
+        long getLong() throws IOException {
+            require(8);
+            return buffer.getLong();
+        }
+
+        /**
+         * Reads an unsigned variable-length {@code int}.
+         *
+         * @return The value.
+         * @throws IOException If the value couldn't be read or is too large.
+         */
+        int getVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                require(1);
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    if (value < 0) {
+                        break;
+                    }
+                    return value;
+                }
+            }
+
+            throw new IOException("Invalid run length.");
+        }
+
+        /**
+         * Reads the stored checksum and compares it to the checksum of the
+         * bytes read before it.
+         *
+         * @throws IOException If it couldn't be read or doesn't match.
+         */
+        void checkChecksum() throws IOException {
+            updateChecksum();
+            require(4);
+            int stored = Integer.reverseBytes(buffer.getInt());
+            if (stored != (int) checksum.getValue()) {
+                throw new IOException("The map file is corrupt: checksum"
+                                      + " mismatch.");
+            }
+        }
+
+        /**
+         * Makes sure that some bytes are buffered, reading more from the
+         * channel if needed.
+         *
+         * @param bytes The number of bytes.
+         * @throws IOException If the channel ends before them.
+         */
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+
+            updateChecksum();
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) == -1) {
+                    throw new IOException("The map file is truncated.");
+                }
+            }
+            buffer.flip();
+            checked = 0;
+        }
+
+        /**
+         * Adds the bytes used since the last update to the checksum.
+         */
+        private void updateChecksum() {
+            ByteBuffer used = buffer.duplicate();
+            used.position(checked).limit(buffer.position());
+            checksum.update(used);
+            checked = buffer.position();
+        }
+    }
+}
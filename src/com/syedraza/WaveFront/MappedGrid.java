@@ -0,0 +1,441 @@
+package com.syedraza.WaveFront;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A grid whose cells are stored in a memory-mapped file instead of on the
+ * heap.
+ * <p>
+ * Blocked cells are kept as one bit per cell, and distances, if the file
+ * has room for them, as one {@code int} per cell. The operating system pages
+ * the file in and out as cells are read, so a map can be larger than the
+ * heap and doesn't add to garbage collection pauses. Any number of
+ * processes can open the same file read-only and share its pages.
+ * <p>
+ * The file starts with a {@value #HEADER_SIZE} byte header: the magic
+ * number {@code 0x57464D50}, the format version, the number of rows, the
+ * number of columns and the flags, each a big-endian {@code int}. The
+ * blocked bits follow as little-endian {@code long}s, where bit
+ * {@code index % 64} of word {@code index / 64} is set if the cell is
+ * blocked, and the distances come after them as little-endian {@code int}s.
+ * <p>
+ * PathFinders only copy their distances into a grid that was opened for
+ * writing and has room for them, so a grid opened read-only can be shared
+ * by PathFinders on any number of threads. Changes made to the file by
+ * other processes are seen by the grid, but aren't counted by
+ * {@link #getVersion()}.
+ */
+public class MappedGrid implements IndexedGrid, VersionedMap {
+    /** The number that every map file starts with. */
+    private static final int MAGIC = 0x57464D50;
+    /** The version of the file format. */
+    private static final int FORMAT_VERSION = 1;
+    /** The flag that is set if the file stores distances. */
+    private static final int DISTANCES = 1;
+    /** The size of the header, in bytes. */
+    public static final int HEADER_SIZE = 64;
+    /** The most distances stored in a single mapping, as a power of two. */
+    private static final int CHUNK_SHIFT = 27;
+
+    /** The blocked cells, one bit per cell. */
+    private final LongBuffer blocked;
+    /** The distances of the cells, in chunks, or {@code null}. */
+    private final IntBuffer[] distances;
+    /** Whether the cells can be changed. */
+    private final boolean writable;
+    /** The number of times cells have been (un)blocked through the grid. */
+    private long version;
+    /** The number of rows in the grid. */
+    public final int rows;
+    /** The number of columns in the grid. */
+    public final int cols;
+
+    /**
+     * Creates a grid from the mapped parts of a file.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @param blocked The blocked cells.
+     * @param distances The distances of the cells, or {@code null}.
+     * @param writable Whether the cells can be changed.
+     */
+    private MappedGrid(int rows, int cols, LongBuffer blocked,
+                       IntBuffer[] distances, boolean writable) {
+        this.rows = rows;
+        this.cols = cols;
+        this.blocked = blocked;
+        this.distances = distances;
+        this.writable = writable;
+    }
+
+    /**
+     * Creates a map file with no blocked cells and opens it for writing. An
+     * existing file is overwritten.
+     *
+     * @param file The path of the file.
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @param withDistances Whether the file should store distances as well
+     *                      as blocked cells.
+     * @return The grid.
+     * @throws IOException If the file couldn't be created.
+     * @throws IllegalArgumentException If the grid has more cells than can be
+     *         indexed by an {@code int}.
+     */
+    public static MappedGrid create(Path file, int rows, int cols,
+                                    boolean withDistances)
+            throws IOException {
+        if (rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid grid size: " + rows
+                                               + "x" + cols + ".");
+        }
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header =
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(FORMAT_VERSION);
+            header.putInt(rows);
+            header.putInt(cols);
+            header.putInt(withDistances ? DISTANCES : 0);
+
+            return map(channel, rows, cols, withDistances, true);
+        }
+    }
+
+    /**
+     * Creates a map file holding a copy of the blocked cells of a map and
+     * opens it for writing. An existing file is overwritten.
+     *
+     * @param file The path of the file.
+     * @param map The map to copy.
+     * @param withDistances Whether the file should store distances as well
+     *                      as blocked cells.
+     * @return The grid.
+     * @throws IOException If the file couldn't be created.
+     */
+    public static MappedGrid create(Path file, ObstacleMap map,
+                                    boolean withDistances)
+            throws IOException {
+        MappedGrid grid = create(file, map.getRows(), map.getCols(),
+                                 withDistances);
+
+        int cells = grid.rows * grid.cols;
+        for (int word = 0; word << 6 < cells; word++) {
+            long bits = 0;
+            int end = Math.min(cells, (word + 1) << 6);
+            for (int i = word << 6; i < end; i++) {
+                if (map.isBlocked(i)) {
+                    bits |= 1L << i;
+                }
+            }
+            grid.blocked.put(word, bits);
+        }
+
+        return grid;
+    }
+
+    /**
+     * Opens an existing map file. Several processes can open the same file
+     * read-only and share the memory it is mapped into.
+     *
+     * @param file The path of the file.
+     * @param writable Whether the cells can be changed. Changes are written
+     *                 back to the file.
+     * @return The grid.
+     * @throws IOException If the file couldn't be read or isn't a map file.
+     */
+    public static MappedGrid open(Path file, boolean writable)
+            throws IOException {
+        StandardOpenOption[] options = writable
+            ? new StandardOpenOption[]{StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE}
+            : new StandardOpenOption[]{StandardOpenOption.READ};
+
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a map file: " + file + ".");
+            }
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY,
+                                                  0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a map file: " + file + ".");
+            }
+
+            int formatVersion = header.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported map file version: "
+                                      + formatVersion + ".");
+            }
+
+            int rows = header.getInt();
+            int cols = header.getInt();
+            int flags = header.getInt();
+            if (rows < 0 || cols < 0
+                || (long) rows * cols > Integer.MAX_VALUE) {
+                throw new IOException("Invalid grid size: " + rows + "x"
+                                      + cols + ".");
+            }
+
+            boolean withDistances = (flags & DISTANCES) != 0;
+            if (channel.size() < fileSize(rows * cols, withDistances)) {
+                throw new IOException("The map file is truncated.");
+            }
+
+            return map(channel, rows, cols, withDistances, writable);
+        }
+    }
+
+    /**
+     * Maps the cells of a map file. The mappings stay valid after the
+     * channel is closed.
+     *
+     * @param channel The channel of the file, which is extended if needed.
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @param withDistances Whether the file stores distances.
+     * @param writable Whether the cells can be changed.
+     * @return The grid.
+     * @throws IOException If the file couldn't be mapped.
+     */
+    private static MappedGrid map(FileChannel channel, int rows, int cols,
+                                  boolean withDistances, boolean writable)
+            throws IOException {
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE
+                                            : FileChannel.MapMode.READ_ONLY;
+        int cells = rows * cols;
+        long blockedBytes = wordCount(cells) * 8L;
+
+        LongBuffer blocked = channel.map(mode, HEADER_SIZE, blockedBytes)
+                                    .order(ByteOrder.LITTLE_ENDIAN)
+                                    .asLongBuffer();
+
+        IntBuffer[] distances = null;
+        if (withDistances) {
+            int chunkCount = (int) (((long) cells + (1 << CHUNK_SHIFT) - 1)
+                                    >>> CHUNK_SHIFT);
+            distances = new IntBuffer[chunkCount];
+            long position = HEADER_SIZE + blockedBytes;
+            for (int i = 0; i < chunkCount; i++) {
+                long chunkCells = Math.min(1L << CHUNK_SHIFT,
+                                           cells - ((long) i << CHUNK_SHIFT));
+                distances[i] = channel.map(mode, position, chunkCells * 4)
+                                      .order(ByteOrder.LITTLE_ENDIAN)
+                                      .asIntBuffer();
+                position += chunkCells * 4;
+            }
+        }
+
+        return new MappedGrid(rows, cols, blocked, distances, writable);
+    }
+
+    /**
+     * Returns the number of words needed to hold the blocked bits.
+     *
+     * @param cells The number of cells.
+     * @return The number of words.
+     */
+    private static int wordCount(int cells) {
+        return (int) (((long) cells + 63) >>> 6);
+    }
+
+    /**
+     * Returns the size of a map file.
+     *
+     * @param cells The number of cells.
+     * @param withDistances Whether the file stores distances.
+     * @return The size, in bytes.
+     */
+    private static long fileSize(int cells, boolean withDistances) {
+        long size = HEADER_SIZE + wordCount(cells) * 8L;
+        if (withDistances) {
+            size += cells * 4L;
+        }
+
+        return size;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return (blocked.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Determines if the cell at the given coordinates is blocked.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the cell is blocked.
+     */
+    public boolean isBlocked(int x, int y) {
+        checkRange(x, y);
+        return isBlocked(x * cols + y);
+    }
+
+    /**
+     * Returns the value of the cell at the given index. If the file doesn't
+     * store distances, open cells are always unfilled.
+     *
+     * @param index The index of the cell.
+     * @return The value.
+     */
+    @Override
+    public int getValue(int index) {
+        if (isBlocked(index)) {
+            return PathFinder.BLOCKED;
+        }
+
+        if (distances == null) {
+            return PathFinder.UNFILLED;
+        }
+
+        return distances[index >>> CHUNK_SHIFT]
+            .get(index & ((1 << CHUNK_SHIFT) - 1));
+    }
+
+    /**
+     * Sets the value of the cell at the given index. If the file doesn't
+     * store distances, only whether the cell is blocked is kept.
+     *
+     * @param index The index of the cell.
+     * @param value The integer value to set.
+     * @throws UnsupportedOperationException If the grid is read-only.
+     */
+    @Override
+    public void setValue(int index, int value) {
+        checkWritable();
+
+        boolean block = value == PathFinder.BLOCKED;
+        long word = blocked.get(index >>> 6);
+        long bit = 1L << index;
+        if (block != ((word & bit) != 0)) {
+            blocked.put(index >>> 6, word ^ bit);
+            version++;
+        }
+
+        if (distances != null) {
+            distances[index >>> CHUNK_SHIFT]
+                .put(index & ((1 << CHUNK_SHIFT) - 1),
+                     block ? PathFinder.UNFILLED : value);
+        }
+    }
+
+    /**
+     * Returns the version of the grid's blocked cells, which changes
+     * whenever a cell is (un)blocked through the grid. Filling the grid
+     * doesn't change it.
+     *
+     * @return The version.
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Determines if the grid stores distances as well as blocked cells.
+     *
+     * @return true if distances are stored.
+     */
+    public boolean hasDistances() {
+        return distances != null;
+    }
+
+    /**
+     * Determines if PathFinders should copy their distances into the grid,
+     * which is only the case if it was opened for writing and stores them.
+     *
+     * @return true if distances are stored and the grid is writable.
+     */
+    @Override
+    public boolean storesDistances() {
+        return writable && distances != null;
+    }
+
+    /**
+     * Determines if the cells of the grid can be changed.
+     *
+     * @return true if the grid was opened for writing.
+     */
+    public boolean isWritable() {
+        return writable;
+    }
+
+    @Override
+    public void partialReset() {
+        checkWritable();
+        if (distances == null) {
+            return;
+        }
+
+        for (IntBuffer chunk : distances) {
+            for (int i = 0; i < chunk.limit(); i++) {
+                chunk.put(i, PathFinder.UNFILLED);
+            }
+        }
+    }
+
+    @Override
+    public void fullReset() {
+        partialReset();
+
+        boolean changed = false;
+        for (int i = 0; i < blocked.limit(); i++) {
+            if (blocked.get(i) != 0) {
+                blocked.put(i, 0);
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            version++;
+        }
+    }
+
+    /**
+     * Makes sure that the grid was opened for writing.
+     *
+     * @throws UnsupportedOperationException If the grid is read-only.
+     */
+    private void checkWritable() {
+        if (!writable) {
+            throw new UnsupportedOperationException("The map file is"
+                                                    + " read-only.");
+        }
+    }
+
+    /**
+     * Makes sure the given coordinates are inside of the grid.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @throws IndexOutOfBoundsException If the point is outside of the grid.
+     */
+    private void checkRange(int x, int y) {
+        if (x < 0 || x >= rows || y < 0 || y >= cols) {
+            throw new IndexOutOfBoundsException("Point (" + x + "," + y
+                                                + ") outside of grid range.");
+        }
+    }
+}
@@ -37,9 +37,9 @@ public class Node implements Comparable<Node> {
     public int compareTo(Node other) {
         int compareResult;
 
-        if (this.value > other.getValue()) {
+        if (getValue() > other.getValue()) {
             compareResult = 1;
-        } else if (this.value < other.getValue()) {
+        } else if (getValue() < other.getValue()) {
             compareResult = -1;
         } else {
             compareResult = 0;
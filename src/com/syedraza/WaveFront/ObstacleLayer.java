@@ -0,0 +1,103 @@
+package com.syedraza.WaveFront;
+
+/**
+ * An immutable copy of the blocked cells of a map.
+ * <p>
+ * Since a layer can't change after it is created, any number of threads can
+ * share one and plan on it at the same time, each with their own
+ * {@link PathFinder} or {@link DistanceField}, without copying the map or
+ * locking.
+ */
+public final class ObstacleLayer implements VersionedMap {
+    /** The blocked cells, one bit per cell. */
+    private final long[] blocked;
+    /** The number of rows in the layer. */
+    private final int rows;
+    /** The number of columns in the layer. */
+    private final int cols;
+
+    /**
+     * Creates a layer from the given blocked bits.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @param blocked The blocked cells, one bit per cell.
+     */
+    private ObstacleLayer(int rows, int cols, long[] blocked) {
+        this.rows = rows;
+        this.cols = cols;
+        this.blocked = blocked;
+    }
+
+    /**
+     * Creates a layer holding a copy of the blocked cells of a map. Later
+     * changes to the map are not reflected in the layer.
+     *
+     * @param map The map to copy.
+     * @return The layer.
+     */
+    public static ObstacleLayer of(ObstacleMap map) {
+        int rows = map.getRows();
+        int cols = map.getCols();
+        int cells = rows * cols;
+        long[] blocked = new long[(cells + 63) >>> 6];
+
+        for (int i = 0; i < cells; i++) {
+            if (map.isBlocked(i)) {
+                blocked[i >>> 6] |= 1L << i;
+            }
+        }
+
+        return new ObstacleLayer(rows, cols, blocked);
+    }
+
+    /**
+     * Creates a layer that takes ownership of the given blocked bits, where
+     * bit {@code index % 64} of word {@code index / 64} is set if the cell is
+     * blocked. The bits must not be changed afterwards.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @param blocked The blocked cells, one bit per cell.
+     * @return The layer.
+     */
+    static ObstacleLayer wrap(int rows, int cols, long[] blocked) {
+        return new ObstacleLayer(rows, cols, blocked);
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return (blocked[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the version of the layer, which never changes.
+     *
+     * @return Always 0.
+     */
+    @Override
+    public long getVersion() {
+        return 0;
+    }
+
+    /**
+     * Determines if the cell at the given coordinates is blocked.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the cell is blocked.
+     */
+    public boolean isBlocked(int x, int y) {
+        return isBlocked(x * cols + y);
+    }
+}
@@ -0,0 +1,31 @@
+package com.syedraza.WaveFront;
+
+/**
+ * Methods a class should implement so that a {@link PathFinder} can read
+ * which cells of a map are blocked.
+ * <p>
+ * The cell at point (x, y) has the index {@code x * getCols() + y}.
+ */
+public interface ObstacleMap {
+    /**
+     * Returns the number of rows in the map.
+     *
+     * @return The number of rows.
+     */
+    int getRows();
+
+    /**
+     * Returns the number of columns in the map.
+     *
+     * @return The number of columns.
+     */
+    int getCols();
+
+    /**
+     * Determines if the cell at the given index is blocked.
+     *
+     * @param index The index of the cell.
+     * @return true if the cell is blocked.
+     */
+    boolean isBlocked(int index);
+}
@@ -0,0 +1,164 @@
+package com.syedraza.WaveFront;
+
+/**
+ * A reusable buffer that holds the points of a path as pairs of
+ * {@code int} coordinates.
+ * <p>
+ * Clearing and refilling a buffer doesn't allocate once it has grown large
+ * enough for the longest path it holds, so the same buffer can receive the
+ * results of any number of queries.
+ */
+public class PathBuffer {
+    /** The coordinates of the points, stored as x, y pairs. */
+    private int[] coordinates;
+    /** The number of points in the buffer. */
+    private int size;
+    /** The number of times the buffer has allocated storage. */
+    private long allocations;
+
+    /**
+     * Creates an empty buffer with room for a small path.
+     */
+    public PathBuffer() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty buffer with room for the given number of points.
+     *
+     * @param capacity The number of points the buffer can hold before it has
+     *                 to grow.
+     */
+    public PathBuffer(int capacity) {
+        coordinates = new int[2 * Math.max(capacity, 1)];
+        allocations = 1;
+    }
+
+    /**
+     * Adds a point to the end of the path.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     */
+    public void add(int x, int y) {
+        if (2 * size == coordinates.length) {
+            int[] larger = new int[2 * coordinates.length];
+            System.arraycopy(coordinates, 0, larger, 0, coordinates.length);
+            coordinates = larger;
+            allocations++;
+        }
+
+        coordinates[2 * size] = x;
+        coordinates[2 * size + 1] = y;
+        size++;
+    }
+
+    /**
+     * Removes every point from the buffer without releasing its storage.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Reverses the order of the points in the buffer.
+     */
+    public void reverse() {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int x = coordinates[2 * i];
+            int y = coordinates[2 * i + 1];
+            coordinates[2 * i] = coordinates[2 * j];
+            coordinates[2 * i + 1] = coordinates[2 * j + 1];
+            coordinates[2 * j] = x;
+            coordinates[2 * j + 1] = y;
+        }
+    }
+
+    /**
+     * Returns the number of points in the buffer.
+     *
+     * @return The size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the x coordinate of a point in the path.
+     *
+     * @param i The position of the point in the path.
+     * @return The x coordinate.
+     * @throws IndexOutOfBoundsException If there is no point at the position.
+     */
+    public int getX(int i) {
+        checkPosition(i);
+        return coordinates[2 * i];
+    }
+
+    /**
+     * Gets the y coordinate of a point in the path.
+     *
+     * @param i The position of the point in the path.
+     * @return The y coordinate.
+     * @throws IndexOutOfBoundsException If there is no point at the position.
+     */
+    public int getY(int i) {
+        checkPosition(i);
+        return coordinates[2 * i + 1];
+    }
+
+    /**
+     * Makes sure there is a point at the given position.
+     *
+     * @param i The position of the point in the path.
+     * @throws IndexOutOfBoundsException If there is no point at the position.
+     */
+    private void checkPosition(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Position " + i + " outside"
+                                                + " of path of size " + size
+                                                + ".");
+        }
+    }
+
+    /**
+     * Returns the number of times the buffer has allocated storage, including
+     * its initial allocation.
+     *
+     * @return The allocation count.
+     */
+    public long getAllocations() {
+        return allocations;
+    }
+
+    /**
+     * Copies the path into a new array of points.
+     *
+     * @return The path of 2D points.
+     */
+    public Point2D[] toArray() {
+        Point2D[] points = new Point2D[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = new Point2D(coordinates[2 * i],
+                                    coordinates[2 * i + 1]);
+        }
+
+        return points;
+    }
+
+    /**
+     * Returns a string representation of the path.
+     *
+     * @return The comma-delimited points of the path.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            result.append("(").append(coordinates[2 * i]).append(",")
+                  .append(coordinates[2 * i + 1]).append("), ");
+        }
+
+        return result.toString();
+    }
+}
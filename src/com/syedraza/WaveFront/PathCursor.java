@@ -0,0 +1,173 @@
+package com.syedraza.WaveFront;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A lazy view of the path from a start cell through a filled
+ * {@link DistanceField}, returning the indices of its cells one at a time.
+ * <p>
+ * Each step is found from the field only when it is asked for, so reading
+ * the first few steps of a long path costs a few steps rather than the whole
+ * path, and nothing is allocated per step. The length of the path is known
+ * from the start cell's distance without walking it, unless the field was
+ * filled with terrain costs.
+ * <p>
+ * The cursor reads the field directly, so it must not be used after the
+ * field is refilled or repaired. It can be pointed at a new start cell with
+ * {@link #reset(int)} instead of creating another one.
+ */
+public class PathCursor implements PrimitiveIterator.OfInt {
+    /** The field to follow. */
+    private final DistanceField field;
+    /** The number of columns in the field. */
+    private final int cols;
+    /** The index of the start cell. */
+    private int start;
+    /** The index of the last returned cell, or {@code -1} before the first. */
+    private int current;
+    /** The index of the next cell, or {@code -1} if there are no more. */
+    private int next;
+
+    /**
+     * Creates a cursor over the path from the given start cell.
+     *
+     * @param field The filled field to follow.
+     * @param startIndex The index of the start cell.
+     * @throws IllegalStateException If the field hasn't been filled.
+     */
+    public PathCursor(DistanceField field, int startIndex) {
+        if (field.getEnd() == -1) {
+            throw new IllegalStateException("The field hasn't been filled.");
+        }
+
+        this.field = field;
+        cols = field.getCols();
+        reset(startIndex);
+    }
+
+    /**
+     * Moves the cursor back to the beginning of the path from a start cell.
+     *
+     * @param startIndex The index of the start cell.
+     */
+    public void reset(int startIndex) {
+        start = startIndex;
+        current = -1;
+        next = startIndex;
+    }
+
+    /**
+     * Determines if the path has more cells.
+     *
+     * @return true if {@link #nextInt()} will return another cell.
+     */
+    @Override
+    public boolean hasNext() {
+        return next != -1;
+    }
+
+    /**
+     * Returns the index of the next cell of the path. The first call returns
+     * the start cell and the last returns the end cell, or the start cell
+     * alone if the end cell can't be reached.
+     *
+     * @return The index of the cell.
+     * @throws NoSuchElementException If there are no more cells.
+     */
+    @Override
+    public int nextInt() {
+        if (next == -1) {
+            throw new NoSuchElementException("The path has no more cells.");
+        }
+
+        current = next;
+        next = current == field.getEnd() ? -1 : field.getNext(current);
+        return current;
+    }
+
+    /**
+     * Returns the x coordinate of the last returned cell.
+     *
+     * @return The x coordinate.
+     * @throws IllegalStateException If no cell has been returned yet.
+     */
+    public int getX() {
+        checkStarted();
+        return current / cols;
+    }
+
+    /**
+     * Returns the y coordinate of the last returned cell.
+     *
+     * @return The y coordinate.
+     * @throws IllegalStateException If no cell has been returned yet.
+     */
+    public int getY() {
+        checkStarted();
+        return current % cols;
+    }
+
+    /**
+     * Determines if the path reaches the end cell.
+     *
+     * @return true if the end cell can be reached from the start cell.
+     */
+    public boolean isReachable() {
+        return start == field.getEnd()
+               || field.getValue(start) != PathFinder.UNFILLED;
+    }
+
+    /**
+     * Returns the number of cells in the whole path, including the start and
+     * end cells. This doesn't move the cursor.
+     *
+     * @return The length of the path, or 1 if the end cell can't be reached
+     *         or the path breaks off before it.
+     */
+    public int length() {
+        if (start == field.getEnd()) {
+            return 1;
+        } else if (field.getValue(start) == PathFinder.UNFILLED) {
+            return 1;
+        } else if (!field.isWeighted()) {
+            // Each step lowers the distance by one down to the end's value
+            return field.getValue(start) - PathFinder.BLOCKED;
+        }
+
+        int length = 1;
+        for (int index = start; index != field.getEnd(); length++) {
+            index = field.getNext(index);
+
+            if (index == -1) {
+                return 1;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Copies the rest of the path into a buffer, leaving the cursor at the
+     * end of the path.
+     *
+     * @param out The buffer to add the cells to.
+     */
+    public void addRemaining(PathBuffer out) {
+        while (hasNext()) {
+            int index = nextInt();
+            out.add(index / cols, index % cols);
+        }
+    }
+
+    /**
+     * Makes sure a cell has been returned.
+     *
+     * @throws IllegalStateException If no cell has been returned yet.
+     */
+    private void checkStarted() {
+        if (current == -1) {
+            throw new IllegalStateException("No cell has been returned yet.");
+        }
+    }
+}
@@ -1,23 +1,57 @@
 package com.syedraza.WaveFront;
 
-import java.util.Queue;
-import java.util.Vector;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Finds the path between two points on a given grid.
  * <p>
+ * A PathFinder keeps its distances in its own {@link DistanceField}, so any
+ * number of PathFinders can plan on one {@link ObstacleMap}, such as a
+ * shared {@link ObstacleLayer}, at the same time. PathFinders created with
+ * an {@link IndexedGrid} also copy the distances into the grid so that they
+ * can be displayed, unless {@link IndexedGrid#storesDistances()} says the
+ * grid shouldn't hold them.
+ * <p>
+ * The path isn't followed until it is asked for, so moving the start point
+ * or editing the map costs nothing until {@link #getPath()} is called, and
+ * {@link #getPathCursor()}, {@link #getPathLength()} and
+ * {@link #getFirstStep()} avoid building the whole path at all.
+ * <p>
+ * The cost of the last search can be read with {@link #getSearchStats()},
+ * and every search can be reported to a {@link SearchListener}, such as a
+ * {@link SearchMetrics} collecting totals and latency histograms.
+ * <p>
  * Passing {@code null} parameters will throw a {@code NullPointerException}.
  */
 public class PathFinder implements Navigation {
-    /** The linked grid. */
-    private final LinkedGrid grid;
+    /** The map to read blocked cells from. */
+    private final ObstacleMap map;
+    /** The grid the pathfinder was created with, or {@code null}. */
+    private final IndexedGrid grid;
+    /** Whether the distances are copied into the grid. */
+    private final boolean copyValues;
+    /** The distances of the cells from the end point. */
+    private final DistanceField field;
+    /** The number of rows in the grid. */
+    private final int rows;
+    /** The number of columns in the grid. */
+    private final int cols;
     /** The start point. */
     private Point2D start;
     /** The end point. */
     private Point2D end;
-    /** The calculated path. */
-    private final Vector<Point2D> path;
+    /** The calculated path, once it has been traced. */
+    private final PathBuffer path;
+    /** Whether the path has been traced since it last changed. */
+    private boolean traced;
+    /** The pool to fill large grids on, or {@code null}. */
+    private ForkJoinPool fillPool;
+    /** The stats of the last search. */
+    private SearchStats stats;
+    /** The index of the start cell at the time of the last search. */
+    private int statsStart;
+    /** The listener to report searches to, or {@code null}. */
+    private SearchListener listener;
     /** The default value of an unfilled node. */
     public static final int UNFILLED = 0;
     /** The value of a node that has been blocked. */
@@ -35,14 +69,69 @@ public class PathFinder implements Navigation {
      *         outside of the grid.
      */
     public PathFinder(LinkedGrid grid, Point2D start, Point2D end) {
-        if (grid == null) {
+        this((IndexedGrid) grid, start, end);
+    }
+
+    /**
+     * Creates a PathFinder object with the given indexed grid and points,
+     * such as a {@link FlatGrid}. The calculated distances are copied into
+     * the grid, unless it {@link IndexedGrid#storesDistances() doesn't store
+     * them}.
+     *
+     * @param grid The pre-initialized grid.
+     * @param start The start point inside the grid different from the end.
+     * @param end The end point inside the grid different from the start.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the grid.
+     */
+    public PathFinder(IndexedGrid grid, Point2D start, Point2D end) {
+        this(grid, grid, start, end);
+    }
+
+    /**
+     * Creates a PathFinder object with the given obstacle map and points.
+     * The map is only read from, so it may be shared with other PathFinders
+     * running on other threads as long as it isn't modified.
+     *
+     * @param map The map to read blocked cells from.
+     * @param start The start point inside the map different from the end.
+     * @param end The end point inside the map different from the start.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public PathFinder(ObstacleMap map, Point2D start, Point2D end) {
+        this(map, null, start, end);
+    }
+
+    /**
+     * Creates a PathFinder object that reads from the given map and copies
+     * distances into the given grid.
+     *
+     * @param map The map to read blocked cells from.
+     * @param grid The grid to reset and copy distances into, or
+     *             {@code null}.
+     * @param start The start point.
+     * @param end The end point.
+     */
+    private PathFinder(ObstacleMap map, IndexedGrid grid, Point2D start,
+                       Point2D end) {
+        if (map == null) {
             throw new NullPointerException("The passed in grid is null.");
         }
 
+        this.map = map;
         this.grid = grid;
+        copyValues = grid != null && grid.storesDistances();
+        rows = map.getRows();
+        cols = map.getCols();
+        field = new DistanceField(rows, cols);
         this.start = start;
         this.end = end;
-        path = new Vector<>();
+        path = new PathBuffer();
 
         calculatePath();
     }
@@ -68,7 +157,7 @@ public class PathFinder implements Navigation {
         }
 
         fillGrid();
-        traverseGrid();
+        traced = false;
     }
 
     /**
@@ -81,147 +170,116 @@ public class PathFinder implements Navigation {
         int x = p.getX();
         int y = p.getY();
 
-        return x >= 0 && x < grid.rows && y >= 0 && y < grid.cols;
+        return x >= 0 && x < rows && y >= 0 && y < cols;
     }
 
     /**
-     * Fills a grid with values corresponding to distance from the end point.
-     * Points are filled in a wave pattern since neighboring nodes will be
-     * equidistant.
+     * Returns the index of the cell at the given point.
+     *
+     * @param p The point.
+     * @return The index of the cell.
      */
-    private void fillGrid() {
-        Queue<DNode> fillQueue = new LinkedBlockingQueue<>();
-        DNode endNode = grid.getNode(end);
-        int fillValue = BLOCKED + 1;
-
-        // Fill the nodes breadth-first by continuously queueing the neighbors
-        fillQueue.add(endNode);
-        while (fillQueue.size() != 0) {
-            int nodesToFill = fillQueue.size();
-
-            while (nodesToFill != 0) {
-                DNode fillNode = fillQueue.poll();
-                fillNode.setValue(fillValue);
-
-                queueNeighbors(fillQueue, fillNode);
-                nodesToFill--;
-            }
-
-            fillValue++;
-        }
+    private int indexOf(Point2D p) {
+        return p.getX() * cols + p.getY();
     }
 
     /**
-     * Adds fillable neighbors to the queue.
-     *
-     * @param queue The queue to add to.
-     * @param node The node who's neighbors are to be added.
+     * Fills the distance field with values corresponding to distance from
+     * the end point, copying them into the grid if they are displayed.
      */
-    private void queueNeighbors(Queue<DNode> queue, DNode node) {
-        DNode[] neighbors = node.getNeighbors();
-        for (DNode neighbor : neighbors) {
-            int nodeValue;
-            if (neighbor != null) {
-                nodeValue = neighbor.getValue();
-            } else {
-                continue;
-            }
+    private void fillGrid() {
+        long startTime = System.nanoTime();
+        if (fillPool != null) {
+            field.fill(map, indexOf(end), fillPool);
+        } else {
+            field.fill(map, indexOf(end));
+        }
 
-            if (nodeValue == UNFILLED && !(queue.contains(neighbor))) {
-                queue.add(neighbor);
+        if (copyValues) {
+            int cells = rows * cols;
+            for (int i = 0; i < cells; i++) {
+                copyValue(i);
             }
         }
+
+        recordSearch(SearchStats.Kind.FILL, System.nanoTime() - startTime);
     }
 
     /**
-     * Naively creates a path from the start point to the end point based on
-     * the node values.
+     * Records the stats of a search and reports them to the listener.
+     *
+     * @param kind Whether the field was filled or repaired.
+     * @param nanos The time spent on the search, in nanoseconds.
      */
-    private void traverseGrid() {
-        path.clear();
-        Point2D coordinates = start;
-        while (!coordinates.equals(end)) {
-            path.add(coordinates);
-            coordinates = getNextNode(coordinates);
-
-            if (coordinates == null) {
-                return;
-            }
+    private void recordSearch(SearchStats.Kind kind, long nanos) {
+        statsStart = indexOf(start);
+        PathCursor cursor = new PathCursor(field, statsStart);
+
+        // Only a uniform field knows the length without walking the path
+        int length = field.isWeighted() ? -1 : cursor.length();
+        stats = new SearchStats(kind, field.getExpandedCount(),
+                                field.getFrontierPeak(), nanos, -1, length,
+                                cursor.isReachable());
+        if (listener != null) {
+            listener.searchCompleted(stats);
         }
-        path.add(end);
     }
 
     /**
-     * Gets the next traversable node with a lower value.
+     * Copies the value of a cell from the distance field into the grid,
+     * leaving blocked cells that couldn't be reached blocked.
      *
-     * @param coordinates The coordinates representing the current node.
-     * @return The next node or {@code null} if none could be found.
+     * @param index The index of the cell.
      */
-    private Point2D getNextNode(Point2D coordinates) {
-        Point2D nextNode = new Point2D(coordinates);
-        DNode current = grid.getNode(coordinates);
-
-        DNode north = current.getNorth();
-        DNode south = current.getSouth();
-        DNode west = current.getWest();
-        DNode east = current.getEast();
-        if (isNextNode(current, north)) {
-            nextNode.translate(0, 1);
-        } else if (isNextNode(current, south)) {
-            nextNode.translate(0, -1);
-        } else if (isNextNode(current, west)) {
-            nextNode.translate(-1, 0);
-        } else if (isNextNode(current, east)) {
-            nextNode.translate(1, 0);
-        } else {
-            return null;
+    private void copyValue(int index) {
+        int value = field.getValue(index);
+        if (value != UNFILLED) {
+            grid.setValue(index, value);
+        } else if (!grid.isBlocked(index)) {
+            grid.setValue(index, UNFILLED);
         }
-
-        return nextNode;
     }
 
     /**
-     * Determines if a given node can be traversed from the first.
-     *
-     * @param first The first node.
-     * @param second The second node.
-     * @return true if the second node is traversable from the first.
+     * Creates a path from the start point to the end point based on the node
+     * values, unless it is already up to date.
      */
-    private boolean isNextNode(DNode first, DNode second) {
-        if (second == null) {
-            return false;
-        }
-
-        boolean isLess;
-        int secondVal = second.getValue();
-        int comparison = second.compareTo(first);
-        if (secondVal == UNFILLED || secondVal == BLOCKED) {
-            isLess = false;
-        } else if (comparison < 0) {
-            isLess = true;
-        } else if (comparison == 0) {
-            // Make sure the grid isn't in an invalid state
-            throw new IllegalStateException("Adjacent nodes have the same"
-                                            + " value.");
-        } else { // Higher value
-            isLess = false;
+    private void traverseGrid() {
+        if (!traced) {
+            long startTime = System.nanoTime();
+            boolean found = field.trace(indexOf(start), path);
+            traced = true;
+
+            stats = stats.withTrace(System.nanoTime() - startTime,
+                                    path.size(), found);
+            if (listener != null) {
+                listener.pathTraced(stats);
+            }
         }
-
-        return isLess;
     }
 
     /**
-     * Updates the start node. This does not require recalculating the path.
+     * Updates the start node. This does not require recalculating the path,
+     * so the start point may briefly be the same as the end, such as while
+     * swapping them.
      *
      * @param start The new starting point.
-     * @throws IllegalArgumentException If the start point is the same as the
-     *         end.
      * @throws IndexOutOfBoundsException If the start point is outside of the
      *         grid.
      */
     public void setStart(Point2D start) {
+        // The path is only followed later, so check the point now
+        if (start == null) {
+            throw new NullPointerException("The start point is null.");
+        }
+
+        if (!pointInRange(start)) {
+            throw new IndexOutOfBoundsException("Start point outside of grid"
+                                                + " range.");
+        }
+
         this.start = start;
-        traverseGrid();
+        traced = false;
     }
 
     /**
@@ -235,7 +293,6 @@ public class PathFinder implements Navigation {
      */
     public void setEnd(Point2D end) {
         this.end = end;
-        grid.partialReset();
         calculatePath();
     }
 
@@ -244,18 +301,100 @@ public class PathFinder implements Navigation {
      * (un)blocking any nodes.
      */
     public void update() {
-        grid.partialReset();
         calculatePath();
     }
 
+    /**
+     * Updates the path to reflect changes to the given nodes only. This is
+     * much faster than {@link #update()} when few nodes were (un)blocked,
+     * since only the distances that depend on them are recalculated.
+     *
+     * @param changed The points of the nodes that were (un)blocked.
+     * @throws IndexOutOfBoundsException If a point is outside of the grid.
+     */
+    public void update(Point2D... changed) {
+        int[] cells = new int[changed.length];
+        for (int i = 0; i < changed.length; i++) {
+            if (!pointInRange(changed[i])) {
+                throw new IndexOutOfBoundsException("Changed point outside"
+                                                    + " of grid range.");
+            }
+
+            cells[i] = indexOf(changed[i]);
+        }
+
+        long startTime = System.nanoTime();
+        int repairedCount = field.repair(map, cells);
+        if (copyValues) {
+            for (int i = 0; i < repairedCount; i++) {
+                copyValue(field.getRepaired(i));
+            }
+
+            for (int cell : cells) {
+                copyValue(cell);
+            }
+        }
+
+        recordSearch(SearchStats.Kind.REPAIR, System.nanoTime() - startTime);
+        traced = false;
+    }
+
     /**
      * Resets all blocked nodes and recalculates the path.
+     *
+     * @throws UnsupportedOperationException If the PathFinder was created
+     *         with a read-only obstacle map.
      */
     public void reset() {
+        if (grid == null) {
+            throw new UnsupportedOperationException("The obstacle map is"
+                                                    + " read-only.");
+        }
+
         grid.fullReset();
         calculatePath();
     }
 
+    /**
+     * Sets a pool to fill the grid on when it is large enough to benefit, as
+     * described by {@link DistanceField#fill(ObstacleMap, int, ForkJoinPool)}.
+     * The distances are the same either way. This takes effect the next time
+     * the path is recalculated.
+     *
+     * @param pool The pool, or {@code null} to always fill on the calling
+     *             thread.
+     */
+    public void setFillPool(ForkJoinPool pool) {
+        fillPool = pool;
+    }
+
+    /**
+     * Sets the listener to report every search to. Searches run before it
+     * is set, including the one run by the constructor, aren't reported.
+     *
+     * @param listener The listener, or {@code null} to stop reporting.
+     */
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the stats of the last search. The path length and whether the
+     * end point can be reached are for the start point at the time of the
+     * search, until the path is traced again. If the field was filled with
+     * terrain costs, this walks the path to find its length.
+     *
+     * @return The stats.
+     */
+    public SearchStats getSearchStats() {
+        if (stats.getPathLength() == -1) {
+            int length = new PathCursor(field, statsStart).length();
+            stats = stats.withPathLength(length);
+        }
+
+        return stats;
+    }
+
     /**
      * Returns the start point used by the pathfinder.
      *
@@ -277,10 +416,34 @@ public class PathFinder implements Navigation {
     /**
      * Returns the grid that the pathfinder was created with.
      *
-     * @return The grid.
+     * @return The grid, or {@code null} if the pathfinder was created with an
+     *         indexed grid that isn't a {@link LinkedGrid}.
      */
     public LinkedGrid getGrid() {
-        return grid;
+        if (grid instanceof LinkedGrid) {
+            return (LinkedGrid) grid;
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the obstacle map that the pathfinder reads from.
+     *
+     * @return The map.
+     */
+    public ObstacleMap getMap() {
+        return map;
+    }
+
+    /**
+     * Returns the distances calculated from the end point. The field is
+     * refilled whenever the path is recalculated.
+     *
+     * @return The distance field.
+     */
+    public DistanceField getDistanceField() {
+        return field;
     }
 
     /**
@@ -290,8 +453,73 @@ public class PathFinder implements Navigation {
      * @return The path of 2D points.
      */
     public Point2D[] getPath() {
-        Point2D[] emptyArray = new Point2D[path.size()];
-        return path.toArray(emptyArray);
+        traverseGrid();
+        return path.toArray();
+    }
+
+    /**
+     * Returns the path that was calculated from start to end as packed cell
+     * indices, which take far less memory than an array of points.
+     *
+     * @return The path. If a suitable path couldn't be found, only the start
+     *         point will be included.
+     */
+    public PrimitivePath getPrimitivePath() {
+        return PrimitivePath.trace(field, indexOf(start));
+    }
+
+    /**
+     * Returns a lazy view of the path from start to end that finds each cell
+     * only when it is asked for. The cursor must not be used after the path
+     * is recalculated.
+     *
+     * @return A cursor over the indices of the path's cells.
+     */
+    public PathCursor getPathCursor() {
+        return new PathCursor(field, indexOf(start));
+    }
+
+    /**
+     * Returns the number of points in the path without building it.
+     *
+     * @return The length of the path, or 1 if the end point can't be
+     *         reached.
+     */
+    public int getPathLength() {
+        return new PathCursor(field, indexOf(start)).length();
+    }
+
+    /**
+     * Returns the first point to step to from the start point without
+     * building the rest of the path.
+     *
+     * @return The next point, or {@code null} if the end point can't be
+     *         reached.
+     */
+    public Point2D getFirstStep() {
+        int next = field.getNext(indexOf(start));
+        if (next == -1) {
+            return null;
+        }
+
+        return new Point2D(next / cols, next % cols);
+    }
+
+    /**
+     * Returns only the points needed to follow the calculated path, as
+     * described by {@link Waypoints}.
+     *
+     * @param smooth Whether to cut corners wherever there is a clear line of
+     *               sight, instead of keeping every turn.
+     * @return The waypoints of the path.
+     */
+    public Point2D[] getWaypoints(boolean smooth) {
+        Point2D[] points = getPath();
+        if (smooth) {
+            return Waypoints.smooth(map, points);
+        }
+
+        return Waypoints.compress(points);
     }
 
     /**
@@ -301,11 +529,7 @@ public class PathFinder implements Navigation {
      */
     @Override
     public String toString() {
-        String result = "";
-        for (Point2D point : path) {
-            result += point + ", ";
-        }
-
-        return result;
+        traverseGrid();
+        return path.toString();
     }
 }
@@ -0,0 +1,522 @@
+package com.syedraza.WaveFront;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Answers path queries on a shared map from any number of threads, running
+ * them on a fixed pool of worker threads.
+ * <p>
+ * Each worker keeps its own {@link SearchWorkspace} for its whole lifetime,
+ * so once the workers have warmed up, a query only allocates its result.
+ * The map is only read from, so it should be one that isn't modified while
+ * queries run, such as an {@link ObstacleLayer}. Edits are published by
+ * passing a new map to {@link #setMap(ObstacleMap)}; queries that were
+ * already submitted keep the map they were submitted against. With a
+ * {@link SnapshotGrid}, passed to {@link #setMap(SnapshotGrid)}, each query
+ * instead pins the latest committed snapshot when it is submitted and
+ * closes it when it is done, so the grid can be edited while queries run.
+ * <p>
+ * Queries return a {@link CompletableFuture} right away. At most a fixed
+ * number of queries may be pending at once: {@link #findPath(Point2D,
+ * Point2D)} fails fast with a {@link RejectedExecutionException} when the
+ * service is full, while {@link #findPathBlocking(Point2D, Point2D)} waits
+ * for room, slowing the caller down to the service's pace. Cancelling the
+ * future of a query that hasn't started removes it from the queue; a query
+ * that has started runs to the end, but its result is dropped.
+ * <p>
+ * When many queries share a few end points, a {@link DistanceFieldCache}
+ * can be attached with {@link #setFieldCache(DistanceFieldCache)}, so those
+ * queries only cost a trace instead of a fill.
+ * <p>
+ * Points are checked when a query is submitted, so invalid points throw
+ * right away instead of failing the future.
+ */
+public class PathService implements AutoCloseable {
+    /** The number of pending queries allowed per worker by default. */
+    private static final int DEFAULT_PENDING_PER_WORKER = 64;
+
+    /** The workers. */
+    private final ThreadPoolExecutor executor;
+    /** The room left for pending queries. */
+    private final Semaphore slots;
+    /** The most queries that may be pending at once. */
+    private final int maxPending;
+    /** The map new queries are run against. */
+    private volatile ObstacleMap map;
+    /** The grid whose snapshots new queries pin, or {@code null}. */
+    private volatile SnapshotGrid snapshots;
+    /** The cache of filled fields new queries use, or {@code null}. */
+    private volatile DistanceFieldCache fieldCache;
+
+    /**
+     * Creates a service with a worker per processor.
+     *
+     * @param map The map to read blocked cells from.
+     */
+    public PathService(ObstacleMap map) {
+        this(map, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a service with the given number of workers.
+     *
+     * @param map The map to read blocked cells from.
+     * @param workers The number of worker threads.
+     * @throws IllegalArgumentException If the number of workers isn't
+     *         positive.
+     */
+    public PathService(ObstacleMap map, int workers) {
+        this(map, workers, workers * DEFAULT_PENDING_PER_WORKER);
+    }
+
+    /**
+     * Creates a service with the given number of workers and limit on
+     * pending queries.
+     *
+     * @param map The map to read blocked cells from.
+     * @param workers The number of worker threads.
+     * @param maxPending The most queries that may be waiting or running at
+     *                   once. A batch counts as one query.
+     * @throws IllegalArgumentException If the number of workers or the
+     *         limit isn't positive.
+     */
+    public PathService(ObstacleMap map, int workers, int maxPending) {
+        if (map == null) {
+            throw new NullPointerException("The passed in map is null.");
+        }
+
+        if (workers <= 0 || maxPending <= 0) {
+            throw new IllegalArgumentException("Invalid worker count or"
+                                               + " pending limit: " + workers
+                                               + ", " + maxPending + ".");
+        }
+
+        this.map = map;
+        this.maxPending = maxPending;
+        slots = new Semaphore(maxPending);
+        executor = new ThreadPoolExecutor(workers, workers, 0,
+                                          TimeUnit.MILLISECONDS,
+                                          new LinkedBlockingQueue<>(),
+                                          new WorkerFactory());
+    }
+
+    /**
+     * Replaces the map that new queries are run against. Queries that were
+     * already submitted keep using the old map.
+     *
+     * @param map The new map. It must not be modified while queries run.
+     */
+    public void setMap(ObstacleMap map) {
+        if (map == null) {
+            throw new NullPointerException("The passed in map is null.");
+        }
+
+        this.map = map;
+        snapshots = null;
+    }
+
+    /**
+     * Runs new queries against the latest committed snapshot of a grid,
+     * pinned from when each query is submitted until it finishes or is
+     * dropped. Queries that were already submitted keep their own maps.
+     *
+     * @param grid The grid.
+     */
+    public void setMap(SnapshotGrid grid) {
+        if (grid == null) {
+            throw new NullPointerException("The passed in grid is null.");
+        }
+
+        snapshots = grid;
+    }
+
+    /**
+     * Returns the map that new queries are run against, unless they run
+     * against a {@link SnapshotGrid}.
+     *
+     * @return The map last passed to {@link #setMap(ObstacleMap)} or the
+     *         constructor.
+     */
+    public ObstacleMap getMap() {
+        return map;
+    }
+
+    /**
+     * Sets a cache of filled fields for new queries to look their end points
+     * up in before filling a field of their own.
+     *
+     * @param cache The cache, or {@code null} to always fill.
+     */
+    public void setFieldCache(DistanceFieldCache cache) {
+        fieldCache = cache;
+    }
+
+    /**
+     * Finds the path between two points, failing right away if too many
+     * queries are pending.
+     *
+     * @param start The start point inside the map different from the end.
+     * @param end The end point inside the map different from the start.
+     * @return The future path. If a suitable path couldn't be found, the
+     *         path only includes the start point. The future fails with a
+     *         {@link RejectedExecutionException} if the service is full or
+     *         closed.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same.
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public CompletableFuture<PrimitivePath> findPath(Point2D start,
+                                                     Point2D end) {
+        Query<PrimitivePath> query = pathQuery(start, end);
+        if (!slots.tryAcquire()) {
+            query.drop();
+            query.future.completeExceptionally(
+                new RejectedExecutionException("Too many pending queries."));
+            return query.future;
+        }
+
+        return enqueue(query);
+    }
+
+    /**
+     * Finds the path between two points, waiting for room if too many
+     * queries are pending.
+     *
+     * @param start The start point inside the map different from the end.
+     * @param end The end point inside the map different from the start.
+     * @return The future path. If a suitable path couldn't be found, the
+     *         path only includes the start point. The future fails with a
+     *         {@link RejectedExecutionException} if the service is closed.
+     * @throws InterruptedException If the thread is interrupted while
+     *         waiting for room.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same.
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public CompletableFuture<PrimitivePath> findPathBlocking(Point2D start,
+                                                             Point2D end)
+            throws InterruptedException {
+        return enqueueBlocking(pathQuery(start, end));
+    }
+
+    /**
+     * Finds the paths from many start points to one end point as a single
+     * query, sharing one fill like a {@link BatchPathFinder}. Waits for room
+     * if too many queries are pending.
+     *
+     * @param starts The start points inside the map.
+     * @param end The end point inside the map.
+     * @return The future paths, in the same order as the start points. The
+     *         future fails with a {@link RejectedExecutionException} if the
+     *         service is closed.
+     * @throws InterruptedException If the thread is interrupted while
+     *         waiting for room.
+     * @throws IndexOutOfBoundsException If a point is outside of the map.
+     */
+    public CompletableFuture<PathSet> findPaths(List<Point2D> starts,
+                                                Point2D end)
+            throws InterruptedException {
+        List<Point2D> batch = List.copyOf(starts);
+        GridSnapshot pinned = pinSnapshot();
+        ObstacleMap current = pinned != null ? pinned : map;
+        try {
+            checkRange(current, end);
+            for (Point2D start : batch) {
+                checkRange(current, start);
+            }
+        } catch (RuntimeException e) {
+            unpin(pinned);
+            throw e;
+        }
+
+        DistanceFieldCache cache = fieldCache;
+        Query<PathSet> query = new Query<>(pinned, workspace -> {
+            DistanceField field = cache != null ? cache.get(current, end)
+                                                : workspace.fill(current, end);
+            PathSet paths = new PathSet();
+            for (Point2D start : batch) {
+                BatchPathFinder.addPath(current, field,
+                                        workspace.getBuffer(), start, paths,
+                                        false);
+            }
+
+            return paths;
+        });
+
+        return enqueueBlocking(query);
+    }
+
+    /**
+     * Checks the points of a path query and creates it against the current
+     * map.
+     *
+     * @param start The start point.
+     * @param end The end point.
+     * @return The query.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same.
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    private Query<PrimitivePath> pathQuery(Point2D start, Point2D end) {
+        GridSnapshot pinned = pinSnapshot();
+        ObstacleMap current = pinned != null ? pinned : map;
+        try {
+            checkRange(current, start);
+            checkRange(current, end);
+            if (start.equals(end)) {
+                throw new IllegalArgumentException("End point is the same as"
+                                                   + " the start point.");
+            }
+        } catch (RuntimeException e) {
+            unpin(pinned);
+            throw e;
+        }
+
+        DistanceFieldCache cache = fieldCache;
+        int cols = current.getCols();
+        return new Query<>(pinned, workspace -> {
+            PathBuffer path = workspace.getBuffer();
+            if (cache != null) {
+                cache.findPath(current, start, end, path);
+            } else {
+                workspace.findPath(current, start, end, path);
+            }
+
+            return PrimitivePath.of(path, cols);
+        });
+    }
+
+    /**
+     * Pins the latest snapshot of the grid new queries run against.
+     *
+     * @return The pinned snapshot, or {@code null} if queries run against a
+     *         plain map.
+     */
+    private GridSnapshot pinSnapshot() {
+        SnapshotGrid grid = snapshots;
+        return grid != null ? grid.pin() : null;
+    }
+
+    /**
+     * Closes a snapshot pinned for a query, if there is one.
+     *
+     * @param pinned The snapshot, or {@code null}.
+     */
+    private static void unpin(GridSnapshot pinned) {
+        if (pinned != null) {
+            pinned.close();
+        }
+    }
+
+    /**
+     * Waits for a slot, then hands a query to the workers.
+     *
+     * @param query The query.
+     * @param <T> The type of the query's result.
+     * @return The query's future.
+     * @throws InterruptedException If the thread is interrupted while
+     *         waiting. The query is dropped.
+     */
+    private <T> CompletableFuture<T> enqueueBlocking(Query<T> query)
+            throws InterruptedException {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            query.drop();
+            throw e;
+        }
+
+        return enqueue(query);
+    }
+
+    /**
+     * Hands a query that already holds a slot to the workers.
+     *
+     * @param query The query.
+     * @param <T> The type of the query's result.
+     * @return The query's future.
+     */
+    private <T> CompletableFuture<T> enqueue(Query<T> query) {
+        // Completing the future early, such as by cancelling it, gives the
+        // slot back if no worker has taken the query yet
+        query.future.whenComplete((result, error) -> {
+            if (query.claim()) {
+                executor.remove(query);
+                slots.release();
+                unpin(query.pinned);
+            }
+        });
+
+        try {
+            executor.execute(query);
+        } catch (RejectedExecutionException e) {
+            query.future.completeExceptionally(e);
+        }
+
+        return query.future;
+    }
+
+    /**
+     * Returns the number of queries waiting or running.
+     *
+     * @return The count.
+     */
+    public int getPendingCount() {
+        return maxPending - slots.availablePermits();
+    }
+
+    /**
+     * Returns the most queries that may be waiting or running at once.
+     *
+     * @return The limit.
+     */
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    /**
+     * Stops accepting queries and waits for the pending ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.DAYS)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops accepting queries and cancels the ones that haven't started.
+     * Queries that are running finish, but this doesn't wait for them.
+     */
+    public void shutdownNow() {
+        for (Runnable waiting : executor.shutdownNow()) {
+            ((Query<?>) waiting).future.cancel(false);
+        }
+    }
+
+    /**
+     * Makes sure a point is inside of a map.
+     *
+     * @param map The map.
+     * @param p The point.
+     * @throws IndexOutOfBoundsException If the point is outside of the map.
+     */
+    private static void checkRange(ObstacleMap map, Point2D p) {
+        int x = p.getX();
+        int y = p.getY();
+        if (x < 0 || x >= map.getRows() || y < 0 || y >= map.getCols()) {
+            throw new IndexOutOfBoundsException("Point " + p + " outside of"
+                                                + " grid range.");
+        }
+    }
+
+    /**
+     * A query waiting for or being run by a worker.
+     *
+     * @param <T> The type of the query's result.
+     */
+    private final class Query<T> implements Runnable {
+        /** The future the result is given to. */
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        /** The work to do with the running worker's workspace. */
+        private final Function<SearchWorkspace, T> work;
+        /** Whether a worker or an early completion has taken the query. */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        /** The snapshot pinned for the query, or {@code null}. */
+        final GridSnapshot pinned;
+
+        /**
+         * Creates a query.
+         *
+         * @param pinned The snapshot pinned for the query, or {@code null}.
+         * @param work The work to do with a worker's workspace.
+         */
+        Query(GridSnapshot pinned, Function<SearchWorkspace, T> work) {
+            this.pinned = pinned;
+            this.work = work;
+        }
+
+        /**
+         * Takes a query that never reached the workers and closes its
+         * snapshot.
+         */
+        void drop() {
+            if (claim()) {
+                unpin(pinned);
+            }
+        }
+
+        /**
+         * Takes the query, so it is only run or dropped once.
+         *
+         * @return true if nothing had taken the query yet.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @Override
+        public void run() {
+            if (!claim()) {
+                return;
+            }
+
+            try {
+                future.complete(work.apply(WorkspacePool.local()));
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            } finally {
+                slots.release();
+                unpin(pinned);
+            }
+        }
+    }
+
+    /**
+     * Creates the daemon worker threads, so an open service doesn't keep the
+     * JVM alive.
+     */
+    private static final class WorkerFactory implements ThreadFactory {
+        /** The number of the service, used in thread names. */
+        private static final AtomicInteger SERVICES = new AtomicInteger();
+        /** The prefix of the names of this service's threads. */
+        private final String prefix = "path-service-"
+                                      + SERVICES.incrementAndGet() + "-";
+        /** The number of threads created. */
+        private final AtomicInteger threads = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, prefix
+                                             + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
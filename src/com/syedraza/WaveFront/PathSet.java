@@ -0,0 +1,228 @@
+package com.syedraza.WaveFront;
+
+import java.util.Arrays;
+
+/**
+ * A compact collection of paths that share a single coordinate array, as
+ * produced by a {@link BatchPathFinder}.
+ * <p>
+ * Paths are stored back to back as pairs of {@code int} coordinates, with an
+ * offset marking where each one starts, so a batch of hundreds of paths
+ * costs a few arrays instead of a {@link Point2D} per step. Paths that
+ * couldn't be found are empty and are also listed by
+ * {@link #getUnreachable()}. A set can be cleared and refilled without
+ * allocating once it has grown large enough.
+ */
+public class PathSet {
+    /** The coordinates of every path, stored as x, y pairs. */
+    private int[] coordinates = new int[64];
+    /** Where each path starts in the list of points, plus the end. */
+    private int[] offsets = new int[17];
+    /** The positions of the paths that couldn't be found. */
+    private int[] unreachable = new int[16];
+    /** The number of paths in the set. */
+    private int size;
+    /** The number of points in every path. */
+    private int points;
+    /** The number of paths that couldn't be found. */
+    private int unreachableCount;
+
+    /**
+     * Removes every path from the set without releasing its storage.
+     */
+    public void clear() {
+        size = 0;
+        points = 0;
+        unreachableCount = 0;
+    }
+
+    /**
+     * Adds a path copied from a buffer.
+     *
+     * @param path The buffer holding the path.
+     * @param reversed Whether to add the points in reverse order.
+     */
+    void add(PathBuffer path, boolean reversed) {
+        int length = path.size();
+        ensureRoom(length);
+
+        for (int i = 0; i < length; i++) {
+            int from = reversed ? length - 1 - i : i;
+            coordinates[2 * (points + i)] = path.getX(from);
+            coordinates[2 * (points + i) + 1] = path.getY(from);
+        }
+
+        points += length;
+        size++;
+        offsets[size] = points;
+    }
+
+    /**
+     * Adds an empty path for a query that couldn't be answered.
+     */
+    void addUnreachable() {
+        ensureRoom(0);
+
+        if (unreachableCount == unreachable.length) {
+            unreachable = Arrays.copyOf(unreachable, 2 * unreachableCount);
+        }
+        unreachable[unreachableCount] = size;
+        unreachableCount++;
+
+        size++;
+        offsets[size] = points;
+    }
+
+    /**
+     * Makes sure there is room for another path of the given length.
+     *
+     * @param length The number of points in the path.
+     */
+    private void ensureRoom(int length) {
+        if (size + 2 > offsets.length) {
+            offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+        }
+
+        int needed = 2 * (points + length);
+        if (needed > coordinates.length) {
+            int capacity = Math.max(needed, 2 * coordinates.length);
+            coordinates = Arrays.copyOf(coordinates, capacity);
+        }
+    }
+
+    /**
+     * Returns the number of paths in the set, including empty ones.
+     *
+     * @return The size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of points in a path.
+     *
+     * @param path The position of the path in the set.
+     * @return The number of points, or 0 if the path couldn't be found.
+     * @throws IndexOutOfBoundsException If there is no path at the position.
+     */
+    public int getLength(int path) {
+        checkPath(path);
+        return offsets[path + 1] - offsets[path];
+    }
+
+    /**
+     * Determines if a path was found.
+     *
+     * @param path The position of the path in the set.
+     * @return true if the path has points.
+     * @throws IndexOutOfBoundsException If there is no path at the position.
+     */
+    public boolean isReachable(int path) {
+        return getLength(path) != 0;
+    }
+
+    /**
+     * Gets the x coordinate of a point in a path.
+     *
+     * @param path The position of the path in the set.
+     * @param step The position of the point in the path.
+     * @return The x coordinate.
+     * @throws IndexOutOfBoundsException If there is no such point.
+     */
+    public int getX(int path, int step) {
+        return coordinates[2 * pointIndex(path, step)];
+    }
+
+    /**
+     * Gets the y coordinate of a point in a path.
+     *
+     * @param path The position of the path in the set.
+     * @param step The position of the point in the path.
+     * @return The y coordinate.
+     * @throws IndexOutOfBoundsException If there is no such point.
+     */
+    public int getY(int path, int step) {
+        return coordinates[2 * pointIndex(path, step) + 1];
+    }
+
+    /**
+     * Copies a path into a new array of points.
+     *
+     * @param path The position of the path in the set.
+     * @return The path of 2D points, which is empty if the path couldn't be
+     *         found.
+     * @throws IndexOutOfBoundsException If there is no path at the position.
+     */
+    public Point2D[] getPath(int path) {
+        int length = getLength(path);
+        int first = offsets[path];
+        Point2D[] result = new Point2D[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = new Point2D(coordinates[2 * (first + i)],
+                                    coordinates[2 * (first + i) + 1]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the positions of the paths that couldn't be found.
+     *
+     * @return The positions in ascending order.
+     */
+    public int[] getUnreachable() {
+        return Arrays.copyOf(unreachable, unreachableCount);
+    }
+
+    /**
+     * Returns the number of paths that couldn't be found.
+     *
+     * @return The count.
+     */
+    public int getUnreachableCount() {
+        return unreachableCount;
+    }
+
+    /**
+     * Returns the number of points in every path of the set.
+     *
+     * @return The count.
+     */
+    public int getPointCount() {
+        return points;
+    }
+
+    /**
+     * Finds where a point is stored in the coordinate array.
+     *
+     * @param path The position of the path in the set.
+     * @param step The position of the point in the path.
+     * @return The position of the point among all points.
+     * @throws IndexOutOfBoundsException If there is no such point.
+     */
+    private int pointIndex(int path, int step) {
+        int length = getLength(path);
+        if (step < 0 || step >= length) {
+            throw new IndexOutOfBoundsException("Step " + step + " outside"
+                                                + " of path of length "
+                                                + length + ".");
+        }
+
+        return offsets[path] + step;
+    }
+
+    /**
+     * Makes sure there is a path at the given position.
+     *
+     * @param path The position of the path in the set.
+     * @throws IndexOutOfBoundsException If there is no path at the position.
+     */
+    private void checkPath(int path) {
+        if (path < 0 || path >= size) {
+            throw new IndexOutOfBoundsException("Path " + path + " outside"
+                                                + " of set of size " + size
+                                                + ".");
+        }
+    }
+}
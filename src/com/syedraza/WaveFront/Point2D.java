@@ -139,9 +139,61 @@ public class Point2D {
         return other.getX() == x && other.getY() == y;
     }
 
+    /**
+     * Returns a hash code that is well spread for nearby points, so hash
+     * tables keyed by points don't collide along rows or diagonals.
+     *
+     * @return The hash code.
+     */
     @Override
     public int hashCode() {
-        return 2 * x + y;
+        return hash(pack(x, y));
+    }
+
+    /**
+     * Packs a pair of coordinates into a single {@code long}, with the x
+     * coordinate in the upper half.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The packed coordinates.
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the x coordinate of packed coordinates.
+     *
+     * @param packed The packed coordinates.
+     * @return The x coordinate.
+     */
+    public static int unpackX(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /**
+     * Returns the y coordinate of packed coordinates.
+     *
+     * @param packed The packed coordinates.
+     * @return The y coordinate.
+     */
+    public static int unpackY(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Mixes the bits of packed coordinates so that every bit of the result
+     * depends on both coordinates.
+     *
+     * @param packed The packed coordinates.
+     * @return The hash.
+     */
+    static int hash(long packed) {
+        long h = packed * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32));
     }
 
     /**
@@ -0,0 +1,188 @@
+package com.syedraza.WaveFront;
+
+/**
+ * A map from points to {@code int} values, stored as packed {@code long}
+ * coordinates in an open-addressing hash table.
+ * <p>
+ * Neither the keys nor the values are boxed, so putting a point allocates
+ * nothing unless the table has to grow. Since a value can't be
+ * {@code null}, lookups return a default value given by the caller when a
+ * point isn't in the map.
+ * <p>
+ * A map isn't thread-safe.
+ */
+public class PointIntMap extends PointTable {
+    /** The values, parallel to the keys. */
+    private int[] values;
+    /** The values set aside while the table grows. */
+    private int[] oldValues;
+
+    /**
+     * Creates an empty map.
+     */
+    public PointIntMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map that can hold the given number of points without
+     * growing.
+     *
+     * @param expected The number of points expected.
+     * @throws IllegalArgumentException If the number is negative or too
+     *         large.
+     */
+    public PointIntMap(int expected) {
+        super(expected);
+        values = new int[keys.length];
+    }
+
+    /**
+     * Gets the value of a point.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param defaultValue The value to return if the point isn't in the map.
+     * @return The value, or the default value.
+     */
+    public int get(int x, int y, int defaultValue) {
+        int slot = find(Point2D.pack(x, y));
+        return slot == -1 ? defaultValue : values[slot];
+    }
+
+    /**
+     * Gets the value of a point.
+     *
+     * @param p The 2D point.
+     * @param defaultValue The value to return if the point isn't in the map.
+     * @return The value, or the default value.
+     */
+    public int get(Point2D p, int defaultValue) {
+        return get(p.getX(), p.getY(), defaultValue);
+    }
+
+    /**
+     * Determines if a point is in the map.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the point has a value.
+     */
+    public boolean containsKey(int x, int y) {
+        return find(Point2D.pack(x, y)) != -1;
+    }
+
+    /**
+     * Determines if a point is in the map.
+     *
+     * @param p The 2D point.
+     * @return true if the point has a value.
+     */
+    public boolean containsKey(Point2D p) {
+        return containsKey(p.getX(), p.getY());
+    }
+
+    /**
+     * Sets the value of a point.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param value The value.
+     * @param defaultValue The value to return if the point wasn't in the map.
+     * @return The previous value, or the default value.
+     */
+    public int put(int x, int y, int value, int defaultValue) {
+        int slot = insert(Point2D.pack(x, y));
+        if (slot < 0) {
+            values[~slot] = value;
+            return defaultValue;
+        }
+
+        int previous = values[slot];
+        values[slot] = value;
+        return previous;
+    }
+
+    /**
+     * Sets the value of a point.
+     *
+     * @param p The 2D point.
+     * @param value The value.
+     * @param defaultValue The value to return if the point wasn't in the map.
+     * @return The previous value, or the default value.
+     */
+    public int put(Point2D p, int value, int defaultValue) {
+        return put(p.getX(), p.getY(), value, defaultValue);
+    }
+
+    /**
+     * Adds to the value of a point, treating a point that isn't in the map as
+     * having a value of zero.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param delta The amount to add.
+     * @return The new value.
+     */
+    public int addTo(int x, int y, int delta) {
+        int slot = insert(Point2D.pack(x, y));
+        if (slot < 0) {
+            slot = ~slot;
+            values[slot] = 0;
+        }
+
+        values[slot] += delta;
+        return values[slot];
+    }
+
+    /**
+     * Removes a point from the map.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param defaultValue The value to return if the point wasn't in the map.
+     * @return The removed value, or the default value.
+     */
+    public int remove(int x, int y, int defaultValue) {
+        int slot = find(Point2D.pack(x, y));
+        if (slot == -1) {
+            return defaultValue;
+        }
+
+        int previous = values[slot];
+        removeAt(slot);
+        return previous;
+    }
+
+    /**
+     * Removes a point from the map.
+     *
+     * @param p The 2D point.
+     * @param defaultValue The value to return if the point wasn't in the map.
+     * @return The removed value, or the default value.
+     */
+    public int remove(Point2D p, int defaultValue) {
+        return remove(p.getX(), p.getY(), defaultValue);
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void startRehash(int capacity) {
+        oldValues = values;
+        values = new int[capacity];
+    }
+
+    @Override
+    void rehashValue(int from, int to) {
+        values[to] = oldValues[from];
+    }
+
+    @Override
+    void finishRehash() {
+        oldValues = null;
+    }
+}
@@ -0,0 +1,189 @@
+package com.syedraza.WaveFront;
+
+import java.util.Arrays;
+
+/**
+ * A map from points to objects, stored as packed {@code long} coordinates
+ * in an open-addressing hash table.
+ * <p>
+ * The keys aren't boxed, so putting a point allocates nothing unless the
+ * table has to grow, and values can be looked up by coordinates without
+ * creating a {@link Point2D} first. Values can't be {@code null}, so that
+ * {@code null} can mean a point isn't in the map.
+ * <p>
+ * A map isn't thread-safe.
+ *
+ * @param <V> The type of the values.
+ */
+public class PointObjectMap<V> extends PointTable {
+    /** The values, parallel to the keys. */
+    private Object[] values;
+    /** The values set aside while the table grows. */
+    private Object[] oldValues;
+
+    /**
+     * Creates an empty map.
+     */
+    public PointObjectMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map that can hold the given number of points without
+     * growing.
+     *
+     * @param expected The number of points expected.
+     * @throws IllegalArgumentException If the number is negative or too
+     *         large.
+     */
+    public PointObjectMap(int expected) {
+        super(expected);
+        values = new Object[keys.length];
+    }
+
+    /**
+     * Gets the value of a point.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The value, or {@code null} if the point isn't in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int x, int y) {
+        int slot = find(Point2D.pack(x, y));
+        return slot == -1 ? null : (V) values[slot];
+    }
+
+    /**
+     * Gets the value of a point.
+     *
+     * @param p The 2D point.
+     * @return The value, or {@code null} if the point isn't in the map.
+     */
+    public V get(Point2D p) {
+        return get(p.getX(), p.getY());
+    }
+
+    /**
+     * Determines if a point is in the map.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the point has a value.
+     */
+    public boolean containsKey(int x, int y) {
+        return find(Point2D.pack(x, y)) != -1;
+    }
+
+    /**
+     * Determines if a point is in the map.
+     *
+     * @param p The 2D point.
+     * @return true if the point has a value.
+     */
+    public boolean containsKey(Point2D p) {
+        return containsKey(p.getX(), p.getY());
+    }
+
+    /**
+     * Sets the value of a point.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param value The value.
+     * @return The previous value, or {@code null} if the point wasn't in the
+     *         map.
+     * @throws NullPointerException If the value is null.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int x, int y, V value) {
+        if (value == null) {
+            throw new NullPointerException("The passed in value is null.");
+        }
+
+        int slot = insert(Point2D.pack(x, y));
+        if (slot < 0) {
+            values[~slot] = value;
+            return null;
+        }
+
+        V previous = (V) values[slot];
+        values[slot] = value;
+        return previous;
+    }
+
+    /**
+     * Sets the value of a point.
+     *
+     * @param p The 2D point.
+     * @param value The value.
+     * @return The previous value, or {@code null} if the point wasn't in the
+     *         map.
+     * @throws NullPointerException If the value is null.
+     */
+    public V put(Point2D p, V value) {
+        return put(p.getX(), p.getY(), value);
+    }
+
+    /**
+     * Removes a point from the map.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The removed value, or {@code null} if the point wasn't in the
+     *         map.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int x, int y) {
+        int slot = find(Point2D.pack(x, y));
+        if (slot == -1) {
+            return null;
+        }
+
+        V previous = (V) values[slot];
+        removeAt(slot);
+        return previous;
+    }
+
+    /**
+     * Removes a point from the map.
+     *
+     * @param p The 2D point.
+     * @return The removed value, or {@code null} if the point wasn't in the
+     *         map.
+     */
+    public V remove(Point2D p) {
+        return remove(p.getX(), p.getY());
+    }
+
+    @Override
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearValue(int slot) {
+        values[slot] = null;
+    }
+
+    @Override
+    void clearValues() {
+        Arrays.fill(values, null);
+    }
+
+    @Override
+    void startRehash(int capacity) {
+        oldValues = values;
+        values = new Object[capacity];
+    }
+
+    @Override
+    void rehashValue(int from, int to) {
+        values[to] = oldValues[from];
+    }
+
+    @Override
+    void finishRehash() {
+        oldValues = null;
+    }
+}
@@ -0,0 +1,118 @@
+package com.syedraza.WaveFront;
+
+/**
+ * A set of points stored as packed {@code long} coordinates in an
+ * open-addressing hash table.
+ * <p>
+ * Unlike a {@code HashSet<Point2D>}, adding a point allocates nothing unless
+ * the table has to grow, and points can be checked by their coordinates
+ * without creating a {@link Point2D} first. Any {@code int} coordinates can
+ * be stored, including negative ones.
+ * <p>
+ * A set isn't thread-safe.
+ */
+public class PointSet extends PointTable {
+    /**
+     * Creates an empty set.
+     */
+    public PointSet() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty set that can hold the given number of points without
+     * growing.
+     *
+     * @param expected The number of points expected.
+     * @throws IllegalArgumentException If the number is negative or too
+     *         large.
+     */
+    public PointSet(int expected) {
+        super(expected);
+    }
+
+    /**
+     * Adds a point to the set.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the point wasn't already in the set.
+     */
+    public boolean add(int x, int y) {
+        return insert(Point2D.pack(x, y)) < 0;
+    }
+
+    /**
+     * Adds a point to the set.
+     *
+     * @param p The 2D point.
+     * @return true if the point wasn't already in the set.
+     */
+    public boolean add(Point2D p) {
+        return add(p.getX(), p.getY());
+    }
+
+    /**
+     * Determines if a point is in the set.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the point is in the set.
+     */
+    public boolean contains(int x, int y) {
+        return find(Point2D.pack(x, y)) != -1;
+    }
+
+    /**
+     * Determines if a point is in the set.
+     *
+     * @param p The 2D point.
+     * @return true if the point is in the set.
+     */
+    public boolean contains(Point2D p) {
+        return contains(p.getX(), p.getY());
+    }
+
+    /**
+     * Removes a point from the set.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the point was in the set.
+     */
+    public boolean remove(int x, int y) {
+        int slot = find(Point2D.pack(x, y));
+        if (slot == -1) {
+            return false;
+        }
+
+        removeAt(slot);
+        return true;
+    }
+
+    /**
+     * Removes a point from the set.
+     *
+     * @param p The 2D point.
+     * @return true if the point was in the set.
+     */
+    public boolean remove(Point2D p) {
+        return remove(p.getX(), p.getY());
+    }
+
+    /**
+     * Copies the set into a new array of points, in no particular order.
+     *
+     * @return The points.
+     */
+    public Point2D[] toArray() {
+        long[] packed = toPackedArray();
+        Point2D[] points = new Point2D[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            points[i] = new Point2D(Point2D.unpackX(packed[i]),
+                                    Point2D.unpackY(packed[i]));
+        }
+
+        return points;
+    }
+}
@@ -0,0 +1,257 @@
+package com.syedraza.WaveFront;
+
+import java.util.Arrays;
+
+/**
+ * The keys of an open-addressing hash table of points, shared by
+ * {@link PointSet}, {@link PointIntMap} and {@link PointObjectMap}.
+ * <p>
+ * Points are packed into {@code long} keys with {@link Point2D#pack(int, int)}
+ * and probed linearly from their {@link Point2D#hash(long) mixed hash}. The
+ * table is kept at most half full, and removing a key shifts the keys after
+ * it back into the gap instead of leaving a marker behind, so lookups never
+ * slow down as keys come and go. Subclasses keep any values in arrays
+ * parallel to the keys and move them when told to.
+ */
+abstract class PointTable {
+    /** The smallest number of slots in a table. */
+    private static final int MIN_CAPACITY = 8;
+    /** The largest number of slots in a table. */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /** The packed keys, valid only in used slots. */
+    long[] keys;
+    /** Which slots hold a key. */
+    boolean[] used;
+    /** The number of keys in the table. */
+    int size;
+    /** The mask of a slot's position, one less than the capacity. */
+    private int mask;
+
+    /**
+     * Creates a table that can hold the given number of keys without
+     * growing.
+     *
+     * @param expected The number of keys expected.
+     * @throws IllegalArgumentException If the number is negative or too
+     *         large.
+     */
+    PointTable(int expected) {
+        if (expected < 0 || expected > MAX_CAPACITY / 2) {
+            throw new IllegalArgumentException("Invalid expected size: "
+                                               + expected + ".");
+        }
+
+        int capacity = MIN_CAPACITY;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+
+        allocate(capacity);
+    }
+
+    /**
+     * Replaces the slots with empty ones.
+     *
+     * @param capacity The number of slots, a power of two.
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the number of points in the table.
+     *
+     * @return The size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determines if the table has no points.
+     *
+     * @return true if the size is zero.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every point, keeping the current capacity.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        clearValues();
+        size = 0;
+    }
+
+    /**
+     * Finds the slot holding a key.
+     *
+     * @param key The packed key.
+     * @return The slot, or {@code -1} if the key isn't in the table.
+     */
+    final int find(long key) {
+        for (int slot = Point2D.hash(key) & mask; used[slot];
+             slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Finds the slot holding a key, adding the key if it isn't in the table.
+     *
+     * @param key The packed key.
+     * @return The slot, or the bitwise complement of the slot if the key was
+     *         added.
+     */
+    final int insert(long key) {
+        int slot = Point2D.hash(key) & mask;
+        for (; used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+            slot = Point2D.hash(key) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        keys[slot] = key;
+        used[slot] = true;
+        size++;
+        return ~slot;
+    }
+
+    /**
+     * Removes the key in a slot, shifting the keys after it back so that
+     * none of them ends up behind an empty slot from its home slot.
+     *
+     * @param slot The used slot.
+     */
+    final void removeAt(int slot) {
+        int gap = slot;
+        for (int next = (gap + 1) & mask; used[next];
+             next = (next + 1) & mask) {
+            int home = Point2D.hash(keys[next]) & mask;
+
+            // Move the key back unless its home lies between the gap and it
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                moveValue(next, gap);
+                gap = next;
+            }
+        }
+
+        used[gap] = false;
+        clearValue(gap);
+        size--;
+    }
+
+    /**
+     * Doubles the number of slots and places every key again.
+     *
+     * @throws IllegalStateException If the table can't grow any larger.
+     */
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("The table is full.");
+        }
+
+        long[] oldKeys = keys;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        startRehash(keys.length);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = Point2D.hash(oldKeys[i]) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+
+                keys[slot] = oldKeys[i];
+                used[slot] = true;
+                rehashValue(i, slot);
+            }
+        }
+
+        finishRehash();
+    }
+
+    /**
+     * Copies the packed keys of the table into a new array, in no particular
+     * order.
+     *
+     * @return The packed keys.
+     */
+    public long[] toPackedArray() {
+        long[] result = new long[size];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                result[n++] = keys[i];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Moves a value from one slot to another while removing a key.
+     *
+     * @param from The slot to move from.
+     * @param to The slot to move to.
+     */
+    void moveValue(int from, int to) {
+    }
+
+    /**
+     * Forgets the value in a slot that is no longer used.
+     *
+     * @param slot The slot.
+     */
+    void clearValue(int slot) {
+    }
+
+    /**
+     * Forgets the values in every slot.
+     */
+    void clearValues() {
+    }
+
+    /**
+     * Sets aside the current values and allocates new ones before the keys
+     * are placed again.
+     *
+     * @param capacity The new number of slots.
+     */
+    void startRehash(int capacity) {
+    }
+
+    /**
+     * Moves a value from a slot in the values set aside to a new slot.
+     *
+     * @param from The old slot.
+     * @param to The new slot.
+     */
+    void rehashValue(int from, int to) {
+    }
+
+    /**
+     * Drops the values set aside once every key has been placed again.
+     */
+    void finishRehash() {
+    }
+}
@@ -0,0 +1,301 @@
+package com.syedraza.WaveFront;
+
+/**
+ * An immutable path stored as the packed indices of its cells.
+ * <p>
+ * Each point is a single {@code int}, {@code x * cols + y}, so a path costs
+ * four bytes per point instead of a {@link Point2D} object and a reference
+ * to it. This makes it suited to keeping large numbers of paths in memory.
+ * Points are read in place with {@link #getX(int)} and {@link #getY(int)},
+ * and converted to and from arrays of points or {@link PathBuffer}s only when
+ * needed.
+ * <p>
+ * A path can be traced straight into a caller's array with
+ * {@link #trace(DistanceField, int, int[])}, or wrap part of an existing
+ * array with {@link #wrap(int[], int, int, int)}, without copying. The array
+ * must not be changed while the path is in use.
+ */
+public final class PrimitivePath {
+    /** The indices of the path's cells, starting at the offset. */
+    private final int[] cells;
+    /** The position of the first cell in the array. */
+    private final int offset;
+    /** The number of cells in the path. */
+    private final int size;
+    /** The number of columns in the map the path is on. */
+    private final int cols;
+
+    /**
+     * Creates a path from part of an array.
+     *
+     * @param cells The array holding the indices of the cells.
+     * @param offset The position of the first cell in the array.
+     * @param size The number of cells.
+     * @param cols The number of columns in the map.
+     */
+    private PrimitivePath(int[] cells, int offset, int size, int cols) {
+        this.cells = cells;
+        this.offset = offset;
+        this.size = size;
+        this.cols = cols;
+    }
+
+    /**
+     * Creates a path that reads its cells from part of an array without
+     * copying it. The array must not be changed while the path is in use.
+     *
+     * @param cells The array holding the indices of the cells.
+     * @param offset The position of the first cell in the array.
+     * @param size The number of cells.
+     * @param cols The number of columns in the map.
+     * @return The path.
+     * @throws IndexOutOfBoundsException If the cells aren't in the array.
+     * @throws IllegalArgumentException If the number of columns isn't
+     *         positive.
+     */
+    public static PrimitivePath wrap(int[] cells, int offset, int size,
+                                     int cols) {
+        if (offset < 0 || size < 0 || offset > cells.length - size) {
+            throw new IndexOutOfBoundsException("Cells " + offset + " to "
+                                                + (offset + size)
+                                                + " outside of array.");
+        }
+
+        if (cols <= 0) {
+            throw new IllegalArgumentException("Invalid column count: "
+                                               + cols + ".");
+        }
+
+        return new PrimitivePath(cells, offset, size, cols);
+    }
+
+    /**
+     * Creates a path holding a copy of the points in a buffer.
+     *
+     * @param path The buffer.
+     * @param cols The number of columns in the map.
+     * @return The path.
+     */
+    public static PrimitivePath of(PathBuffer path, int cols) {
+        int[] cells = new int[path.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = path.getX(i) * cols + path.getY(i);
+        }
+
+        return wrap(cells, 0, cells.length, cols);
+    }
+
+    /**
+     * Creates a path holding a copy of an array of points.
+     *
+     * @param points The points.
+     * @param cols The number of columns in the map.
+     * @return The path.
+     */
+    public static PrimitivePath of(Point2D[] points, int cols) {
+        int[] cells = new int[points.length];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = points[i].getX() * cols + points[i].getY();
+        }
+
+        return wrap(cells, 0, cells.length, cols);
+    }
+
+    /**
+     * Follows a filled field from a start cell to its end cell, allocating
+     * an array of exactly the path's length.
+     *
+     * @param field The filled field.
+     * @param startIndex The index of the start cell.
+     * @return The path. If the end cell can't be reached, only the start cell
+     *         is included.
+     * @throws IllegalStateException If the field hasn't been filled.
+     */
+    public static PrimitivePath trace(DistanceField field, int startIndex) {
+        return trace(field, startIndex, null);
+    }
+
+    /**
+     * Follows a filled field from a start cell to its end cell, storing the
+     * path in the caller's array if it is long enough.
+     *
+     * @param field The filled field.
+     * @param startIndex The index of the start cell.
+     * @param buffer The array to store the path in, or {@code null}. A new
+     *               array of exactly the path's length is allocated if it is
+     *               too short.
+     * @return The path, backed by the buffer if it was used. If the end cell
+     *         can't be reached, only the start cell is included.
+     * @throws IllegalStateException If the field hasn't been filled.
+     */
+    public static PrimitivePath trace(DistanceField field, int startIndex,
+                                      int[] buffer) {
+        PathCursor cursor = new PathCursor(field, startIndex);
+        int length = cursor.length();
+        int[] cells = buffer != null && buffer.length >= length
+                      ? buffer : new int[length];
+
+        for (int i = 0; i < length; i++) {
+            cells[i] = cursor.nextInt();
+        }
+
+        return new PrimitivePath(cells, 0, length, field.getCols());
+    }
+
+    /**
+     * Returns the number of points in the path.
+     *
+     * @return The size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of columns in the map the path is on.
+     *
+     * @return The number of columns.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the index of the cell at a point in the path.
+     *
+     * @param i The position of the point in the path.
+     * @return The index of the cell.
+     * @throws IndexOutOfBoundsException If there is no point at the position.
+     */
+    public int getIndex(int i) {
+        checkPosition(i);
+        return cells[offset + i];
+    }
+
+    /**
+     * Gets the x coordinate of a point in the path.
+     *
+     * @param i The position of the point in the path.
+     * @return The x coordinate.
+     * @throws IndexOutOfBoundsException If there is no point at the position.
+     */
+    public int getX(int i) {
+        return getIndex(i) / cols;
+    }
+
+    /**
+     * Gets the y coordinate of a point in the path.
+     *
+     * @param i The position of the point in the path.
+     * @return The y coordinate.
+     * @throws IndexOutOfBoundsException If there is no point at the position.
+     */
+    public int getY(int i) {
+        return getIndex(i) % cols;
+    }
+
+    /**
+     * Copies the indices of the path's cells into an array.
+     *
+     * @param dest The array to copy into.
+     * @param destPos The position in the array to copy the first cell to.
+     * @throws IndexOutOfBoundsException If the array is too short.
+     */
+    public void copyTo(int[] dest, int destPos) {
+        System.arraycopy(cells, offset, dest, destPos, size);
+    }
+
+    /**
+     * Copies the points of the path into a buffer.
+     *
+     * @param out The buffer. It is cleared first.
+     */
+    public void copyTo(PathBuffer out) {
+        out.clear();
+        for (int i = offset; i < offset + size; i++) {
+            out.add(cells[i] / cols, cells[i] % cols);
+        }
+    }
+
+    /**
+     * Copies the path into a new array of points.
+     *
+     * @return The path of 2D points.
+     */
+    public Point2D[] toArray() {
+        Point2D[] points = new Point2D[size];
+        for (int i = 0; i < size; i++) {
+            int index = cells[offset + i];
+            points[i] = new Point2D(index / cols, index % cols);
+        }
+
+        return points;
+    }
+
+    /**
+     * Makes sure there is a point at the given position.
+     *
+     * @param i The position of the point in the path.
+     * @throws IndexOutOfBoundsException If there is no point at the position.
+     */
+    private void checkPosition(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Position " + i + " outside"
+                                                + " of path of size " + size
+                                                + ".");
+        }
+    }
+
+    /**
+     * Determines if the path has the same points as another path.
+     *
+     * @param obj The object to compare to.
+     * @return true if the paths have the same points in the same order.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof PrimitivePath)) {
+            return false;
+        }
+
+        PrimitivePath other = (PrimitivePath) obj;
+        if (other.size != size) {
+            return false;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (other.getX(i) != getX(i) || other.getY(i) != getY(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + getX(i);
+            hash = 31 * hash + getY(i);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns a string representation of the path.
+     *
+     * @return The comma-delimited points of the path.
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            result.append("(").append(getX(i)).append(",").append(getY(i))
+                  .append("), ");
+        }
+
+        return result.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.syedraza.WaveFront;
+
+/**
+ * Receives the {@link SearchStats} of every search a {@link PathFinder}
+ * runs, for logging or collecting metrics such as a {@link SearchMetrics}.
+ * <p>
+ * Listeners are called on the thread running the search, right after it
+ * finishes, so they should return quickly. A listener shared by pathfinders
+ * on different threads must be thread-safe.
+ */
+@FunctionalInterface
+public interface SearchListener {
+    /**
+     * Called after the distances are filled or repaired, before the path is
+     * traced.
+     *
+     * @param stats The stats of the search, with no traverse time yet, and
+     *              no path length yet if it was filled with terrain costs.
+     */
+    void searchCompleted(SearchStats stats);
+
+    /**
+     * Called after the path of a search is traced, which happens the first
+     * time it is asked for after a search or after the start point moves.
+     * Does nothing by default.
+     *
+     * @param stats The stats of the search, with the traverse time and the
+     *              traced path's length.
+     */
+    default void pathTraced(SearchStats stats) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.syedraza.WaveFront;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative counters and latency histograms for the searches of any number
+ * of {@link PathFinder}s.
+ * <p>
+ * A metrics object is a {@link SearchListener}, so it is attached with
+ * {@link PathFinder#setSearchListener(SearchListener)}, and it is
+ * thread-safe, so one object can collect from pathfinders on many threads.
+ * The totals can be read directly or exported with {@link #export()} in the
+ * Prometheus text format, which most dashboards can scrape without any
+ * extra libraries.
+ */
+public class SearchMetrics implements SearchListener {
+    /** The prefix of every exported metric's name. */
+    private static final String PREFIX = "wavefront_";
+
+    /** The number of searches that filled the distances from scratch. */
+    private final LongAdder fills = new LongAdder();
+    /** The number of searches that repaired the distances. */
+    private final LongAdder repairs = new LongAdder();
+    /** The number of searches whose end point couldn't be reached. */
+    private final LongAdder unreachable = new LongAdder();
+    /** The number of paths traced. */
+    private final LongAdder traces = new LongAdder();
+    /** The total number of cells expanded by searches. */
+    private final LongAdder cellsExpanded = new LongAdder();
+    /** The time spent filling. */
+    private final LatencyHistogram fillLatency = new LatencyHistogram();
+    /** The time spent repairing. */
+    private final LatencyHistogram repairLatency = new LatencyHistogram();
+    /** The time spent tracing paths. */
+    private final LatencyHistogram traverseLatency = new LatencyHistogram();
+
+    @Override
+    public void searchCompleted(SearchStats stats) {
+        if (stats.getKind() == SearchStats.Kind.FILL) {
+            fills.increment();
+            fillLatency.record(stats.getFillNanos());
+        } else {
+            repairs.increment();
+            repairLatency.record(stats.getFillNanos());
+        }
+
+        if (!stats.isReachable()) {
+            unreachable.increment();
+        }
+
+        cellsExpanded.add(stats.getExpandedCount());
+    }
+
+    @Override
+    public void pathTraced(SearchStats stats) {
+        traces.increment();
+        traverseLatency.record(stats.getTraverseNanos());
+    }
+
+    /**
+     * Returns the number of searches that filled the distances from scratch.
+     *
+     * @return The count.
+     */
+    public long getFillCount() {
+        return fills.sum();
+    }
+
+    /**
+     * Returns the number of searches that repaired the distances.
+     *
+     * @return The count.
+     */
+    public long getRepairCount() {
+        return repairs.sum();
+    }
+
+    /**
+     * Returns the number of searches whose end point couldn't be reached
+     * from the start point.
+     *
+     * @return The count.
+     */
+    public long getUnreachableCount() {
+        return unreachable.sum();
+    }
+
+    /**
+     * Returns the number of paths traced.
+     *
+     * @return The count.
+     */
+    public long getTraceCount() {
+        return traces.sum();
+    }
+
+    /**
+     * Returns the total number of cells expanded by every search.
+     *
+     * @return The number of cells.
+     */
+    public long getCellsExpanded() {
+        return cellsExpanded.sum();
+    }
+
+    /**
+     * Returns the histogram of the time spent filling.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getFillLatency() {
+        return fillLatency;
+    }
+
+    /**
+     * Returns the histogram of the time spent repairing.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getRepairLatency() {
+        return repairLatency;
+    }
+
+    /**
+     * Returns the histogram of the time spent tracing paths.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getTraverseLatency() {
+        return traverseLatency;
+    }
+
+    /**
+     * Exports every counter and histogram in the Prometheus text format.
+     * Times are in seconds.
+     *
+     * @return The metrics, one sample per line.
+     */
+    public String export() {
+        StringBuilder out = new StringBuilder();
+
+        String searches = PREFIX + "searches_total";
+        out.append("# HELP ").append(searches)
+           .append(" Searches run, by kind.\n");
+        out.append("# TYPE ").append(searches).append(" counter\n");
+        out.append(searches).append("{kind=\"fill\"} ").append(getFillCount())
+           .append('\n');
+        out.append(searches).append("{kind=\"repair\"} ")
+           .append(getRepairCount()).append('\n');
+
+        exportCounter(out, "unreachable_total",
+                      "Searches whose end point couldn't be reached.",
+                      getUnreachableCount());
+        exportCounter(out, "traces_total", "Paths traced.", getTraceCount());
+        exportCounter(out, "cells_expanded_total",
+                      "Cells expanded by searches.", getCellsExpanded());
+
+        fillLatency.export(out, PREFIX + "fill_seconds",
+                           "Time spent filling distances.");
+        repairLatency.export(out, PREFIX + "repair_seconds",
+                             "Time spent repairing distances.");
+        traverseLatency.export(out, PREFIX + "traverse_seconds",
+                               "Time spent tracing paths.");
+        return out.toString();
+    }
+
+    /**
+     * Writes a counter in the Prometheus text format.
+     *
+     * @param out The builder to append to.
+     * @param name The name of the counter, without the prefix.
+     * @param help The description of the counter.
+     * @param value The value of the counter.
+     */
+    private static void exportCounter(StringBuilder out, String name,
+                                      String help, long value) {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ')
+           .append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name)
+           .append(" counter\n");
+        out.append(PREFIX).append(name).append(' ').append(value)
+           .append('\n');
+    }
+}
@@ -0,0 +1,180 @@
+package com.syedraza.WaveFront;
+
+/**
+ * What a single search by a {@link PathFinder} cost: how much of the map it
+ * expanded, how long it took, and what it found.
+ * <p>
+ * A search is a fill, which happens when a pathfinder is created, its end
+ * point moves or it is updated, or a repair after a few cells changed. The
+ * path is only traced when it is first asked for, so the time spent tracing
+ * is added later, in a copy of the stats given to
+ * {@link SearchListener#pathTraced(SearchStats)}.
+ * <p>
+ * Stats are immutable, so they can be kept or passed between threads.
+ */
+public final class SearchStats {
+    /** Whether the field was filled from scratch or repaired. */
+    private final Kind kind;
+    /** The number of cells expanded. */
+    private final int expandedCount;
+    /** The most cells waiting to be expanded at once. */
+    private final int frontierPeak;
+    /** The time spent filling or repairing, in nanoseconds. */
+    private final long fillNanos;
+    /** The time spent tracing the path, or {@code -1} if not traced. */
+    private final long traverseNanos;
+    /** The number of points in the path, or {@code -1} if not known yet. */
+    private final int pathLength;
+    /** Whether the end point can be reached from the start point. */
+    private final boolean reachable;
+
+    /**
+     * Creates the stats of a search.
+     *
+     * @param kind Whether the field was filled from scratch or repaired.
+     * @param expandedCount The number of cells expanded.
+     * @param frontierPeak The most cells waiting to be expanded at once.
+     * @param fillNanos The time spent filling or repairing, in nanoseconds.
+     * @param traverseNanos The time spent tracing the path, or {@code -1}.
+     * @param pathLength The number of points in the path, or {@code -1}.
+     * @param reachable Whether the end point can be reached.
+     */
+    SearchStats(Kind kind, int expandedCount, int frontierPeak,
+                long fillNanos, long traverseNanos, int pathLength,
+                boolean reachable) {
+        this.kind = kind;
+        this.expandedCount = expandedCount;
+        this.frontierPeak = frontierPeak;
+        this.fillNanos = fillNanos;
+        this.traverseNanos = traverseNanos;
+        this.pathLength = pathLength;
+        this.reachable = reachable;
+    }
+
+    /**
+     * Returns a copy of the stats with the cost and result of tracing the
+     * path.
+     *
+     * @param nanos The time spent tracing the path, in nanoseconds.
+     * @param length The number of points in the traced path.
+     * @param found Whether the traced path reached the end point.
+     * @return The new stats.
+     */
+    SearchStats withTrace(long nanos, int length, boolean found) {
+        return new SearchStats(kind, expandedCount, frontierPeak, fillNanos,
+                               nanos, length, found);
+    }
+
+    /**
+     * Returns a copy of the stats with the length of the path, found after
+     * the search.
+     *
+     * @param length The number of points in the path.
+     * @return The new stats.
+     */
+    SearchStats withPathLength(int length) {
+        return new SearchStats(kind, expandedCount, frontierPeak, fillNanos,
+                               traverseNanos, length, reachable);
+    }
+
+    /**
+     * Returns whether the field was filled from scratch or repaired.
+     *
+     * @return The kind of search.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the number of cells the search expanded.
+     *
+     * @return The number of cells.
+     */
+    public int getExpandedCount() {
+        return expandedCount;
+    }
+
+    /**
+     * Returns the most cells that were waiting to be expanded at once.
+     *
+     * @return The peak size of the frontier.
+     */
+    public int getFrontierPeak() {
+        return frontierPeak;
+    }
+
+    /**
+     * Returns the time spent filling or repairing the distances, including
+     * copying them into the pathfinder's grid if it has one.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long getFillNanos() {
+        return fillNanos;
+    }
+
+    /**
+     * Returns the time spent tracing the path.
+     *
+     * @return The time in nanoseconds, or {@code -1} if the path hasn't been
+     *         traced.
+     */
+    public long getTraverseNanos() {
+        return traverseNanos;
+    }
+
+    /**
+     * Determines if the path has been traced.
+     *
+     * @return true if the traverse time is known.
+     */
+    public boolean isTraced() {
+        return traverseNanos != -1;
+    }
+
+    /**
+     * Returns the number of points in the path, including the start and end
+     * points. Finding the length of a path through terrain costs means
+     * walking it, so for those the length is only known once the path is
+     * traced or the stats are read from the pathfinder.
+     *
+     * @return The length of the path, 1 if the end point can't be reached,
+     *         or {@code -1} if the length isn't known yet.
+     */
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * Determines if the end point can be reached from the start point.
+     *
+     * @return true if a path was found.
+     */
+    public boolean isReachable() {
+        return reachable;
+    }
+
+    /**
+     * Returns a string representation of the stats.
+     *
+     * @return The stats on one line.
+     */
+    @Override
+    public String toString() {
+        return kind + ": expanded=" + expandedCount + ", frontierPeak="
+               + frontierPeak + ", fillNanos=" + fillNanos
+               + ", traverseNanos=" + traverseNanos + ", pathLength="
+               + pathLength + ", reachable=" + reachable;
+    }
+
+    /**
+     * The ways the distances of a search can be found.
+     */
+    public enum Kind {
+        /** Every distance was filled from scratch. */
+        FILL,
+        /** Only the distances affected by changed cells were repaired. */
+        REPAIR
+    }
+}
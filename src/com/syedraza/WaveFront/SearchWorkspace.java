@@ -0,0 +1,172 @@
+package com.syedraza.WaveFront;
+
+/**
+ * The reusable state needed to run wavefront queries without allocating.
+ * <p>
+ * A workspace keeps a {@link DistanceField} and a {@link PathBuffer} between
+ * queries and only replaces them when a query needs a larger one, so once it
+ * has seen the largest map it will be used with, further queries allocate
+ * nothing. The number of allocations made so far is available from
+ * {@link #getAllocations()}.
+ * <p>
+ * A workspace must only be used by one thread at a time. Borrow one from a
+ * {@link WorkspacePool} to share workspaces between threads.
+ */
+public class SearchWorkspace {
+    /** The field filled by the last query. */
+    private DistanceField field;
+    /** The buffer that receives paths when the caller doesn't supply one. */
+    private final PathBuffer path;
+    /** The number of allocations made by the workspace itself. */
+    private long allocations;
+
+    /**
+     * Creates an empty workspace. Its field is allocated by the first query.
+     */
+    public SearchWorkspace() {
+        path = new PathBuffer();
+    }
+
+    /**
+     * Creates a workspace ready for maps of the given size.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     */
+    public SearchWorkspace(int rows, int cols) {
+        this();
+        ensureField(rows, cols);
+    }
+
+    /**
+     * Finds the path between two points, storing it in the workspace's own
+     * buffer. The buffer is overwritten by the next query.
+     *
+     * @param map The map to read blocked cells from.
+     * @param start The start point inside the map different from the end.
+     * @param end The end point inside the map different from the start.
+     * @return The path. If a suitable path couldn't be found, only the start
+     *         point will be included.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same.
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public PathBuffer findPath(ObstacleMap map, Point2D start, Point2D end) {
+        findPath(map, start, end, path);
+        return path;
+    }
+
+    /**
+     * Finds the path between two points, storing it in the given buffer.
+     *
+     * @param map The map to read blocked cells from.
+     * @param start The start point inside the map different from the end.
+     * @param end The end point inside the map different from the start.
+     * @param out The buffer to store the path in. It is cleared first. If a
+     *            suitable path couldn't be found, only the start point will be
+     *            included.
+     * @return true if a path was found.
+     * @throws IllegalArgumentException If the start and end points are the
+     *         same.
+     * @throws IndexOutOfBoundsException If the start and end points are
+     *         outside of the map.
+     */
+    public boolean findPath(ObstacleMap map, Point2D start, Point2D end,
+                            PathBuffer out) {
+        if (map == null || start == null || end == null || out == null) {
+            throw new NullPointerException("The map, points or buffer is"
+                                           + " null.");
+        }
+
+        int rows = map.getRows();
+        int cols = map.getCols();
+        if (!inRange(start, rows, cols) || !inRange(end, rows, cols)) {
+            throw new IndexOutOfBoundsException("Start or end points outside"
+                                                + " of grid range.");
+        }
+
+        if (start.equals(end)) {
+            throw new IllegalArgumentException("End point is the same as the"
+                                               + " start point.");
+        }
+
+        fill(map, end);
+        return field.trace(start.getX() * cols + start.getY(), out);
+    }
+
+    /**
+     * Fills the workspace's field from an end point that is known to be
+     * inside of the map.
+     *
+     * @param map The map to read blocked cells from.
+     * @param end The end point.
+     * @return The filled field.
+     */
+    DistanceField fill(ObstacleMap map, Point2D end) {
+        int cols = map.getCols();
+        ensureField(map.getRows(), cols);
+        field.fill(map, end.getX() * cols + end.getY());
+        return field;
+    }
+
+    /**
+     * Returns the workspace's own path buffer, which is overwritten by the
+     * next query.
+     *
+     * @return The buffer.
+     */
+    PathBuffer getBuffer() {
+        return path;
+    }
+
+    /**
+     * Makes sure the workspace has a field of the given size, replacing it if
+     * it doesn't.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     */
+    private void ensureField(int rows, int cols) {
+        if (field == null || field.getRows() != rows
+            || field.getCols() != cols) {
+            field = new DistanceField(rows, cols);
+            allocations++;
+        }
+    }
+
+    /**
+     * Determines if a point is inside of a map of the given size.
+     *
+     * @param p The point.
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @return true if the coordinates of the point are in the range.
+     */
+    private static boolean inRange(Point2D p, int rows, int cols) {
+        int x = p.getX();
+        int y = p.getY();
+
+        return x >= 0 && x < rows && y >= 0 && y < cols;
+    }
+
+    /**
+     * Returns the field filled by the last query.
+     *
+     * @return The distance field, or {@code null} if no query has been run.
+     */
+    public DistanceField getDistanceField() {
+        return field;
+    }
+
+    /**
+     * Returns the number of allocations the workspace has made, including
+     * those made by its own path buffer. Queries that don't change this
+     * count didn't allocate.
+     *
+     * @return The allocation count.
+     */
+    public long getAllocations() {
+        return allocations + path.getAllocations();
+    }
+}
@@ -0,0 +1,300 @@
+package com.syedraza.WaveFront;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A map whose blocked cells are edited copy-on-write and published as
+ * immutable, versioned {@link GridSnapshot}s.
+ * <p>
+ * Edits go into a private draft that no reader can see. The first edit to a
+ * chunk of {@link #CHUNK_CELLS} cells copies that chunk, and the others are
+ * shared with the previous version. {@link #commit()} publishes the draft as
+ * a new snapshot in a single step. Readers call {@link #pin()} to get the
+ * latest snapshot for the duration of a query, which never takes a lock, so
+ * edits never block queries and queries never see a half-made edit.
+ * <p>
+ * A snapshot's memory is reclaimed by the writer once it is unpinned, a
+ * newer version has been committed, and every older version has been
+ * reclaimed too. The chunks it doesn't share with newer versions are then
+ * reused for later copies instead of being left to the garbage collector.
+ * <p>
+ * Any number of threads may pin snapshots. Edits and commits are
+ * serialized, so several threads can edit but they share one draft.
+ */
+public class SnapshotGrid {
+    /** The number of cells in a chunk, as a power of two. */
+    static final int CHUNK_SHIFT = 12;
+    /** The number of cells in a chunk. */
+    public static final int CHUNK_CELLS = 1 << CHUNK_SHIFT;
+    /** The number of words in a chunk. */
+    private static final int CHUNK_WORDS = CHUNK_CELLS >>> 6;
+    /** The mask of a word's position within its chunk. */
+    static final int CHUNK_WORD_MASK = CHUNK_WORDS - 1;
+    /** A chunk with no blocked cells, shared by every open part of a map. */
+    private static final long[] OPEN_CHUNK = new long[CHUNK_WORDS];
+
+    /** The number of rows in the grid. */
+    private final int rows;
+    /** The number of columns in the grid. */
+    private final int cols;
+    /** The latest committed snapshot. */
+    private volatile GridSnapshot current;
+    /** The chunks being edited, or {@code null} if nothing is edited. */
+    private long[][] draft;
+    /** Which chunks of the draft have been copied from the latest version. */
+    private final boolean[] copied;
+    /** The chunks of the latest version that the draft has replaced. */
+    private final List<long[]> replaced = new ArrayList<>();
+    /** The older snapshots that haven't been reclaimed, oldest first. */
+    private final ArrayDeque<GridSnapshot> retired = new ArrayDeque<>();
+    /** The reclaimed chunks waiting to be reused. */
+    private final ArrayDeque<long[]> free = new ArrayDeque<>();
+
+    /**
+     * Creates an open grid of the specified size.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @throws IllegalArgumentException If the grid has more cells than can be
+     *         indexed by an {@code int}.
+     */
+    public SnapshotGrid(int rows, int cols) {
+        if (rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid grid size: " + rows
+                                               + "x" + cols + ".");
+        }
+
+        this.rows = rows;
+        this.cols = cols;
+        int chunkCount = (int) (((long) rows * cols + CHUNK_CELLS - 1)
+                                >>> CHUNK_SHIFT);
+        long[][] chunks = new long[chunkCount][];
+        Arrays.fill(chunks, OPEN_CHUNK);
+        copied = new boolean[chunkCount];
+        current = new GridSnapshot(this, chunks, rows, cols, 0);
+    }
+
+    /**
+     * Creates a grid holding a copy of the blocked cells of a map as its
+     * first version.
+     *
+     * @param map The map to copy.
+     */
+    public SnapshotGrid(ObstacleMap map) {
+        this(map.getRows(), map.getCols());
+
+        int cells = rows * cols;
+        for (int i = 0; i < cells; i++) {
+            if (map.isBlocked(i)) {
+                setBlockedAt(i, true);
+            }
+        }
+
+        // The first version is the copy, not an empty grid
+        long[][] chunks = draft == null ? current.chunks : draft;
+        current = new GridSnapshot(this, chunks, rows, cols, 0);
+        draft = null;
+        Arrays.fill(copied, false);
+        replaced.clear();
+    }
+
+    /**
+     * Returns the number of rows in the grid.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns in the grid.
+     *
+     * @return The number of columns.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Pins the latest committed snapshot. The snapshot must be closed once
+     * it is no longer used. This never blocks.
+     *
+     * @return The pinned snapshot.
+     */
+    public GridSnapshot pin() {
+        while (true) {
+            GridSnapshot snapshot = current;
+            if (snapshot.tryPin()) {
+                return snapshot;
+            }
+            // The snapshot was superseded and reclaimed since it was read
+        }
+    }
+
+    /**
+     * Returns the version of the latest committed snapshot.
+     *
+     * @return The version.
+     */
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    /**
+     * Determines if a cell is blocked in the draft, including edits that
+     * haven't been committed yet.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the cell is blocked.
+     * @throws IndexOutOfBoundsException If the point is outside of the grid.
+     */
+    public synchronized boolean isBlocked(int x, int y) {
+        checkRange(x, y);
+        int index = x * cols + y;
+        long[][] chunks = draft != null ? draft : current.chunks;
+        long word = chunks[index >>> CHUNK_SHIFT]
+                          [(index >>> 6) & CHUNK_WORD_MASK];
+        return (word & (1L << index)) != 0;
+    }
+
+    /**
+     * (Un)blocks a cell in the draft. Readers don't see the change until it
+     * is committed.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param blocked Whether the cell should be blocked.
+     * @throws IndexOutOfBoundsException If the point is outside of the grid.
+     */
+    public synchronized void setBlocked(int x, int y, boolean blocked) {
+        checkRange(x, y);
+        setBlockedAt(x * cols + y, blocked);
+    }
+
+    /**
+     * (Un)blocks a cell in the draft. Readers don't see the change until it
+     * is committed.
+     *
+     * @param p The 2D point.
+     * @param blocked Whether the cell should be blocked.
+     * @throws IndexOutOfBoundsException If the point is outside of the grid.
+     */
+    public void setBlocked(Point2D p, boolean blocked) {
+        setBlocked(p.getX(), p.getY(), blocked);
+    }
+
+    /**
+     * (Un)blocks a cell in the draft, copying its chunk the first time it
+     * changes.
+     *
+     * @param index The index of the cell.
+     * @param blocked Whether the cell should be blocked.
+     */
+    private void setBlockedAt(int index, boolean blocked) {
+        int chunk = index >>> CHUNK_SHIFT;
+        int word = (index >>> 6) & CHUNK_WORD_MASK;
+        long bit = 1L << index;
+        long[][] chunks = draft != null ? draft : current.chunks;
+        if (((chunks[chunk][word] & bit) != 0) == blocked) {
+            return;
+        }
+
+        if (draft == null) {
+            draft = current.chunks.clone();
+        }
+
+        if (!copied[chunk]) {
+            long[] original = draft[chunk];
+            long[] copy = free.isEmpty() ? new long[CHUNK_WORDS]
+                                         : free.pop();
+            System.arraycopy(original, 0, copy, 0, CHUNK_WORDS);
+            draft[chunk] = copy;
+            copied[chunk] = true;
+            replaced.add(original);
+        }
+
+        draft[chunk][word] ^= bit;
+    }
+
+    /**
+     * Publishes the draft as a new snapshot and reclaims older snapshots
+     * that are no longer pinned. Snapshots pinned before the commit keep
+     * their old cells.
+     *
+     * @return The latest snapshot, which isn't pinned. If nothing was
+     *         edited, no new version is made.
+     */
+    public synchronized GridSnapshot commit() {
+        if (draft == null) {
+            return current;
+        }
+
+        GridSnapshot previous = current;
+        previous.replaced = replaced.toArray(new long[replaced.size()][]);
+        current = new GridSnapshot(this, draft, rows, cols,
+                                   previous.getVersion() + 1);
+        retired.addLast(previous);
+
+        draft = null;
+        Arrays.fill(copied, false);
+        replaced.clear();
+        reclaim();
+        return current;
+    }
+
+    /**
+     * Reclaims the memory of older snapshots that are no longer pinned.
+     * This is done by every commit, but can also be called once readers
+     * have closed the snapshots they pinned before the last commit.
+     *
+     * @return The number of snapshots reclaimed.
+     */
+    public synchronized int reclaim() {
+        int count = 0;
+
+        // A chunk replaced by a version is shared by the versions before it,
+        // so snapshots are reclaimed oldest first
+        while (!retired.isEmpty() && retired.peekFirst().tryReclaim()) {
+            GridSnapshot snapshot = retired.pollFirst();
+            for (long[] chunk : snapshot.replaced) {
+                if (chunk != OPEN_CHUNK && free.size() < copied.length) {
+                    free.push(chunk);
+                }
+            }
+
+            snapshot.replaced = null;
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the number of older snapshots that are still kept because
+     * they, or a snapshot older than them, are pinned.
+     *
+     * @return The count.
+     */
+    public synchronized int getRetainedCount() {
+        return retired.size();
+    }
+
+    /**
+     * Makes sure the given coordinates are inside of the grid.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @throws IndexOutOfBoundsException If the point is outside of the grid.
+     */
+    private void checkRange(int x, int y) {
+        if (x < 0 || x >= rows || y < 0 || y >= cols) {
+            throw new IndexOutOfBoundsException("Point (" + x + "," + y
+                                                + ") outside of grid range.");
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.syedraza.WaveFront;
+
+import java.util.Arrays;
+
+/**
+ * A grid split into square tiles that are only allocated once they hold
+ * something.
+ * <p>
+ * A tile is created when one of its cells is blocked or given a value, and
+ * released again once all of its cells are open and unfilled. Every other
+ * tile is open and unfilled implicitly and costs a single {@code null}
+ * reference, so the grid itself grows with its obstacles rather than its
+ * size.
+ * <p>
+ * Cells are addressed by {@link Point2D} coordinates or by index like any
+ * other {@link IndexedGrid}, and a {@link PathFinder} never copies its
+ * distances into a sparse grid, since a fill reaches every open cell
+ * connected to the end point and would allocate nearly every tile. The
+ * planners still keep their own per-cell state for the whole world, though:
+ * four bytes per cell for a PathFinder's {@link DistanceField} and twelve
+ * for the A*, Jump Point and bidirectional planners. Only a
+ * {@link HierarchicalPathFinder}, which keeps its state per cluster, plans
+ * on a world too large for that.
+ * <p>
+ * Note: You should only manually modify the values of cells in order to
+ * (un)block them, which will require updating the pathfinder.
+ */
+public class SparseGrid implements IndexedGrid, VersionedMap {
+    /** The width and height of a tile, as a power of two. */
+    private static final int TILE_SHIFT = 6;
+    /** The width and height of a tile. */
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+    /** The mask of a coordinate's position within its tile. */
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    /** The tiles, or {@code null} for tiles that are open and unfilled. */
+    private final Tile[] tiles;
+    /** The number of tiles along the y axis. */
+    private final int tileCols;
+    /** The number of tiles that are allocated. */
+    private int tileCount;
+    /** The number of times cells have been (un)blocked. */
+    private long version;
+    /** The number of rows in the grid. */
+    public final int rows;
+    /** The number of columns in the grid. */
+    public final int cols;
+
+    /**
+     * Creates an open sparse grid of the specified size. No tiles are
+     * allocated until cells are blocked or filled.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @throws IllegalArgumentException If the grid has more cells than can be
+     *         indexed by an {@code int}.
+     */
+    public SparseGrid(int rows, int cols) {
+        if (rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid grid size: " + rows
+                                               + "x" + cols + ".");
+        }
+
+        this.rows = rows;
+        this.cols = cols;
+        int tileRows = (rows + TILE_MASK) >>> TILE_SHIFT;
+        tileCols = (cols + TILE_MASK) >>> TILE_SHIFT;
+        tiles = new Tile[tileRows * tileCols];
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the position of the tile holding the given cell.
+     *
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The position of the tile.
+     */
+    private int tileOf(int x, int y) {
+        return (x >>> TILE_SHIFT) * tileCols + (y >>> TILE_SHIFT);
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return isBlockedAt(index / cols, index % cols);
+    }
+
+    /**
+     * Determines if the cell at the given coordinates is blocked.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the cell is blocked.
+     */
+    public boolean isBlocked(int x, int y) {
+        checkRange(x, y);
+        return isBlockedAt(x, y);
+    }
+
+    /**
+     * Determines if the cell at the given coordinates is blocked, without
+     * checking that they are in range.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return true if the cell is blocked.
+     */
+    private boolean isBlockedAt(int x, int y) {
+        Tile tile = tiles[tileOf(x, y)];
+        return tile != null
+               && (tile.blocked[x & TILE_MASK] & (1L << y)) != 0;
+    }
+
+    @Override
+    public int getValue(int index) {
+        return getValueAt(index / cols, index % cols);
+    }
+
+    /**
+     * Gets the value of the cell at the given coordinates.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The value.
+     */
+    public int getValue(int x, int y) {
+        checkRange(x, y);
+        return getValueAt(x, y);
+    }
+
+    /**
+     * Gets the value of the cell at the given coordinates, without checking
+     * that they are in range.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The value.
+     */
+    private int getValueAt(int x, int y) {
+        Tile tile = tiles[tileOf(x, y)];
+        if (tile == null) {
+            return PathFinder.UNFILLED;
+        }
+
+        if ((tile.blocked[x & TILE_MASK] & (1L << y)) != 0) {
+            return PathFinder.BLOCKED;
+        }
+
+        if (tile.values == null) {
+            return PathFinder.UNFILLED;
+        }
+
+        return tile.values[((x & TILE_MASK) << TILE_SHIFT) | (y & TILE_MASK)];
+    }
+
+    @Override
+    public void setValue(int index, int value) {
+        setValueAt(index / cols, index % cols, value);
+    }
+
+    /**
+     * Sets the value of the cell at the given coordinates.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param value The integer value to set.
+     */
+    public void setValue(int x, int y, int value) {
+        checkRange(x, y);
+        setValueAt(x, y, value);
+    }
+
+    /**
+     * Sets the value of the cell at the given coordinates, without checking
+     * that they are in range. Tiles are allocated and released as needed.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param value The integer value to set.
+     */
+    private void setValueAt(int x, int y, int value) {
+        int position = tileOf(x, y);
+        Tile tile = tiles[position];
+        boolean block = value == PathFinder.BLOCKED;
+        if (tile == null) {
+            if (value == PathFinder.UNFILLED) {
+                return;
+            }
+
+            tile = new Tile();
+            tiles[position] = tile;
+            tileCount++;
+        }
+
+        int row = x & TILE_MASK;
+        long bit = 1L << y;
+        if (block != ((tile.blocked[row] & bit) != 0)) {
+            tile.blocked[row] ^= bit;
+            tile.blockedCount += block ? 1 : -1;
+            version++;
+        }
+
+        int stored = block ? PathFinder.UNFILLED : value;
+        int cell = (row << TILE_SHIFT) | (y & TILE_MASK);
+        if (tile.values == null && stored != PathFinder.UNFILLED) {
+            tile.values = new int[TILE_SIZE * TILE_SIZE];
+        }
+
+        if (tile.values != null) {
+            boolean wasFilled = tile.values[cell] != PathFinder.UNFILLED;
+            boolean filled = stored != PathFinder.UNFILLED;
+            if (wasFilled != filled) {
+                tile.valueCount += filled ? 1 : -1;
+            }
+            tile.values[cell] = stored;
+
+            if (tile.valueCount == 0) {
+                tile.values = null;
+            }
+        }
+
+        if (tile.blockedCount == 0 && tile.values == null) {
+            tiles[position] = null;
+            tileCount--;
+        }
+    }
+
+    /**
+     * Gets a node view of the cell specified by the given coordinates.
+     * <p>
+     * The node is not stored by the grid; it reads and writes the cell's
+     * value directly, so existing code that (un)blocks nodes keeps working.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return A node backed by the cell at the given point.
+     */
+    public Node getNode(int x, int y) {
+        checkRange(x, y);
+        return new CellNode(x, y);
+    }
+
+    /**
+     * Gets a node view of the cell specified by the given point.
+     *
+     * @param p The 2D point.
+     * @return A node backed by the cell at the given point.
+     */
+    public Node getNode(Point2D p) {
+        return getNode(p.getX(), p.getY());
+    }
+
+    /**
+     * Returns the version of the grid's blocked cells, which changes
+     * whenever a cell is (un)blocked. Filling the grid doesn't change it.
+     *
+     * @return The version.
+     */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns false, since copying a fill's distances into the grid would
+     * allocate every tile the wave reaches.
+     *
+     * @return false.
+     */
+    @Override
+    public boolean storesDistances() {
+        return false;
+    }
+
+    /**
+     * Returns the number of tiles that are allocated.
+     *
+     * @return The tile count.
+     */
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    @Override
+    public void partialReset() {
+        for (int i = 0; i < tiles.length; i++) {
+            Tile tile = tiles[i];
+            if (tile != null) {
+                tile.values = null;
+                tile.valueCount = 0;
+                if (tile.blockedCount == 0) {
+                    tiles[i] = null;
+                    tileCount--;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void fullReset() {
+        boolean blocked = false;
+        for (Tile tile : tiles) {
+            if (tile != null && tile.blockedCount != 0) {
+                blocked = true;
+                break;
+            }
+        }
+
+        Arrays.fill(tiles, null);
+        tileCount = 0;
+        if (blocked) {
+            version++;
+        }
+    }
+
+    /**
+     * Makes sure the given coordinates are inside of the grid. Without this a
+     * coordinate that is out of range could silently wrap onto another row.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @throws IndexOutOfBoundsException If the point is outside of the grid.
+     */
+    private void checkRange(int x, int y) {
+        if (x < 0 || x >= rows || y < 0 || y >= cols) {
+            throw new IndexOutOfBoundsException("Point (" + x + "," + y
+                                                + ") outside of grid range.");
+        }
+    }
+
+    /**
+     * The cells of an allocated tile.
+     */
+    private static final class Tile {
+        /** The blocked cells, one word per row of the tile. */
+        final long[] blocked = new long[TILE_SIZE];
+        /** The number of blocked cells. */
+        int blockedCount;
+        /** The values of the cells, or {@code null} if all are unfilled. */
+        int[] values;
+        /** The number of cells with a value other than unfilled. */
+        int valueCount;
+    }
+
+    /**
+     * A node whose value is stored in the grid's tiles.
+     */
+    private class CellNode extends Node {
+        /** The x coordinate of the cell backing the node. */
+        private final int x;
+        /** The y coordinate of the cell backing the node. */
+        private final int y;
+
+        /**
+         * Creates a node backed by the given cell.
+         *
+         * @param x The x coordinate of the cell.
+         * @param y The y coordinate of the cell.
+         */
+        CellNode(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public void setValue(int value) {
+            setValueAt(x, y, value);
+        }
+
+        @Override
+        public int getValue() {
+            return getValueAt(x, y);
+        }
+    }
+}
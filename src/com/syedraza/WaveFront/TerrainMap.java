@@ -0,0 +1,163 @@
+package com.syedraza.WaveFront;
+
+/**
+ * A {@link CostMap} that adds per-cell traversal costs to the blocked cells
+ * of another map.
+ * <p>
+ * Every cell costs 1 to enter until its cost is changed. Costs are stored in
+ * a byte per cell, so they range from 1 to {@link #MAX_COST}. Small costs
+ * keep weighted fills fast, since a {@link DistanceField} fills a cost map
+ * with one bucket per possible cost.
+ * <p>
+ * The blocked cells are read from the wrapped map, so blocking a cell there
+ * is seen by the terrain map too. The version of the terrain map changes
+ * whenever a cost changes, or the wrapped map's version changes if it is a
+ * {@link VersionedMap}.
+ */
+public class TerrainMap implements CostMap, VersionedMap {
+    /** The highest cost of a cell. */
+    public static final int MAX_COST = 255;
+
+    /** The map to read blocked cells from. */
+    private final ObstacleMap obstacles;
+    /** The costs of the cells minus one, as unsigned bytes. */
+    private final byte[] costs;
+    /** The number of cells with each cost minus one. */
+    private final int[] costCounts;
+    /** The highest cost of any cell. */
+    private int maxCost;
+    /** The number of times a cost has been changed. */
+    private long version;
+
+    /**
+     * Creates a terrain map over the given map in which every cell costs 1.
+     *
+     * @param obstacles The map to read blocked cells from.
+     */
+    public TerrainMap(ObstacleMap obstacles) {
+        if (obstacles == null) {
+            throw new NullPointerException("The passed in map is null.");
+        }
+
+        this.obstacles = obstacles;
+        int cells = obstacles.getRows() * obstacles.getCols();
+        costs = new byte[cells];
+        costCounts = new int[MAX_COST];
+        costCounts[0] = cells;
+        maxCost = 1;
+    }
+
+    @Override
+    public int getRows() {
+        return obstacles.getRows();
+    }
+
+    @Override
+    public int getCols() {
+        return obstacles.getCols();
+    }
+
+    @Override
+    public boolean isBlocked(int index) {
+        return obstacles.isBlocked(index);
+    }
+
+    @Override
+    public int getCost(int index) {
+        return (costs[index] & 0xFF) + 1;
+    }
+
+    /**
+     * Returns the cost of stepping into the cell at the given coordinates.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return The cost.
+     */
+    public int getCost(int x, int y) {
+        checkRange(x, y);
+        return getCost(x * getCols() + y);
+    }
+
+    /**
+     * Sets the cost of stepping into the cell at the given index.
+     *
+     * @param index The index of the cell.
+     * @param cost The cost, from 1 to {@link #MAX_COST}.
+     * @throws IllegalArgumentException If the cost is out of range.
+     */
+    public void setCost(int index, int cost) {
+        if (cost < 1 || cost > MAX_COST) {
+            throw new IllegalArgumentException("Invalid cost: " + cost + ".");
+        }
+
+        int old = getCost(index);
+        if (old == cost) {
+            return;
+        }
+
+        costs[index] = (byte) (cost - 1);
+        costCounts[old - 1]--;
+        costCounts[cost - 1]++;
+        version++;
+
+        if (cost > maxCost) {
+            maxCost = cost;
+        } else {
+            while (costCounts[maxCost - 1] == 0) {
+                maxCost--;
+            }
+        }
+    }
+
+    /**
+     * Sets the cost of stepping into the cell at the given coordinates.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @param cost The cost, from 1 to {@link #MAX_COST}.
+     * @throws IllegalArgumentException If the cost is out of range.
+     */
+    public void setCost(int x, int y, int cost) {
+        checkRange(x, y);
+        setCost(x * getCols() + y, cost);
+    }
+
+    @Override
+    public int getMaxCost() {
+        return maxCost;
+    }
+
+    @Override
+    public long getVersion() {
+        long obstacleVersion = 0;
+        if (obstacles instanceof VersionedMap) {
+            obstacleVersion = ((VersionedMap) obstacles).getVersion();
+        }
+
+        return version + obstacleVersion;
+    }
+
+    /**
+     * Returns the map that blocked cells are read from.
+     *
+     * @return The map.
+     */
+    public ObstacleMap getObstacles() {
+        return obstacles;
+    }
+
+    /**
+     * Makes sure the given coordinates are inside of the map.
+     *
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @throws IndexOutOfBoundsException If the point is outside of the map.
+     */
+    private void checkRange(int x, int y) {
+        if (x < 0 || x >= getRows() || y < 0 || y >= getCols()) {
+            throw new IndexOutOfBoundsException("Point (" + x + "," + y
+                                                + ") outside of grid range.");
+        }
+    }
+}
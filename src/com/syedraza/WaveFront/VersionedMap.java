@@ -0,0 +1,16 @@
+package com.syedraza.WaveFront;
+
+/**
+ * An {@link ObstacleMap} that keeps track of changes to its blocked cells,
+ * so results calculated from it can tell when they are out of date.
+ */
+public interface VersionedMap extends ObstacleMap {
+    /**
+     * Returns the version of the map's blocked cells. The version changes
+     * whenever a cell is (un)blocked, and never goes back to an earlier
+     * value.
+     *
+     * @return The version.
+     */
+    long getVersion();
+}
@@ -0,0 +1,216 @@
+package com.syedraza.WaveFront;
+
+/**
+ * Shrinks paths down to the few points needed to follow them.
+ * <p>
+ * A path found on a grid lists every cell it passes through, even along
+ * straight runs. {@link #compress(PathBuffer, PathBuffer)} keeps only the
+ * points where the path turns, and {@link #smooth(ObstacleMap, PathBuffer,
+ * PathBuffer)} goes further by replacing staircases with straight lines at
+ * any angle wherever nothing is in the way. Either way, following the
+ * straight lines between consecutive waypoints never crosses a blocked
+ * cell.
+ */
+public final class Waypoints {
+    /**
+     * Prevents the class from being instantiated.
+     */
+    private Waypoints() {
+    }
+
+    /**
+     * Copies the start point, the end point and every point where a path
+     * changes direction.
+     *
+     * @param path The path, with each point next to the one before it.
+     * @param out The buffer to store the waypoints in. It is cleared first.
+     * @throws IllegalArgumentException If the buffers are the same.
+     */
+    public static void compress(PathBuffer path, PathBuffer out) {
+        checkDistinct(path, out);
+
+        out.clear();
+        int size = path.size();
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || i == size - 1 || isTurn(path, i)) {
+                out.add(path.getX(i), path.getY(i));
+            }
+        }
+    }
+
+    /**
+     * Returns the start point, the end point and every point where a path
+     * changes direction.
+     *
+     * @param path The path, with each point next to the one before it.
+     * @return The waypoints.
+     */
+    public static Point2D[] compress(Point2D[] path) {
+        PathBuffer waypoints = new PathBuffer();
+        compress(toBuffer(path), waypoints);
+        return waypoints.toArray();
+    }
+
+    /**
+     * Determines if a path changes direction at a point.
+     *
+     * @param path The path.
+     * @param i The position of a point that isn't the first or last.
+     * @return true if the steps into and out of the point differ.
+     */
+    private static boolean isTurn(PathBuffer path, int i) {
+        int inX = path.getX(i) - path.getX(i - 1);
+        int inY = path.getY(i) - path.getY(i - 1);
+        int outX = path.getX(i + 1) - path.getX(i);
+        int outY = path.getY(i + 1) - path.getY(i);
+
+        return inX != outX || inY != outY;
+    }
+
+    /**
+     * Replaces the points of a path with as few waypoints as possible while
+     * keeping a clear line of sight between consecutive waypoints.
+     * <p>
+     * From each waypoint, the path is followed for as long as its points
+     * can be seen, and the last visible point becomes the next waypoint.
+     * This is greedy, so the result isn't always the fewest possible
+     * waypoints, but it never passes through a blocked cell and is never
+     * longer than the original path.
+     *
+     * @param map The map to check lines of sight on.
+     * @param path The path, with each point next to the one before it.
+     * @param out The buffer to store the waypoints in. It is cleared first.
+     * @throws IllegalArgumentException If the buffers are the same.
+     */
+    public static void smooth(ObstacleMap map, PathBuffer path,
+                              PathBuffer out) {
+        checkDistinct(path, out);
+
+        out.clear();
+        int size = path.size();
+        if (size == 0) {
+            return;
+        }
+
+        int anchor = 0;
+        out.add(path.getX(0), path.getY(0));
+        while (anchor < size - 1) {
+            int ax = path.getX(anchor);
+            int ay = path.getY(anchor);
+
+            // A neighboring point can always be seen
+            int next = anchor + 1;
+            while (next + 1 < size
+                   && hasLineOfSight(map, ax, ay, path.getX(next + 1),
+                                     path.getY(next + 1))) {
+                next++;
+            }
+
+            out.add(path.getX(next), path.getY(next));
+            anchor = next;
+        }
+    }
+
+    /**
+     * Replaces the points of a path with as few waypoints as possible while
+     * keeping a clear line of sight between consecutive waypoints, as
+     * described by {@link #smooth(ObstacleMap, PathBuffer, PathBuffer)}.
+     *
+     * @param map The map to check lines of sight on.
+     * @param path The path, with each point next to the one before it.
+     * @return The waypoints.
+     */
+    public static Point2D[] smooth(ObstacleMap map, Point2D[] path) {
+        PathBuffer waypoints = new PathBuffer();
+        smooth(map, toBuffer(path), waypoints);
+        return waypoints.toArray();
+    }
+
+    /**
+     * Determines if the straight line between the centers of two cells
+     * avoids every blocked cell. The two cells themselves aren't checked.
+     * <p>
+     * Every cell the line touches is checked, not just the ones Bresenham's
+     * algorithm would draw. Where the line passes exactly through the
+     * corner of a cell, both cells beside the corner must be open, so the
+     * line never squeezes between two diagonal obstacles.
+     *
+     * @param map The map to read blocked cells from.
+     * @param x0 The x coordinate of the first cell.
+     * @param y0 The y coordinate of the first cell.
+     * @param x1 The x coordinate of the second cell.
+     * @param y1 The y coordinate of the second cell.
+     * @return true if there is a clear line between the cells.
+     */
+    public static boolean hasLineOfSight(ObstacleMap map, int x0, int y0,
+                                         int x1, int y1) {
+        int cols = map.getCols();
+        int dx = Math.abs(x1 - x0);
+        int dy = Math.abs(y1 - y0);
+        int stepX = x1 > x0 ? 1 : -1;
+        int stepY = y1 > y0 ? 1 : -1;
+
+        // Which side of the next corner the line passes, scaled by 2dx*dy
+        int error = dx - dy;
+        int steps = dx + dy;
+        int x = x0;
+        int y = y0;
+        while (steps > 1) {
+            if (error > 0) {
+                x += stepX;
+                error -= 2 * dy;
+                steps--;
+            } else if (error < 0) {
+                y += stepY;
+                error += 2 * dx;
+                steps--;
+            } else {
+                // Passing through a corner touches both cells beside it
+                if (map.isBlocked((x + stepX) * cols + y)
+                    || map.isBlocked(x * cols + y + stepY)) {
+                    return false;
+                }
+
+                x += stepX;
+                y += stepY;
+                error += 2 * dx - 2 * dy;
+                steps -= 2;
+            }
+
+            if (steps > 0 && map.isBlocked(x * cols + y)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies an array of points into a new buffer.
+     *
+     * @param path The points.
+     * @return The buffer.
+     */
+    private static PathBuffer toBuffer(Point2D[] path) {
+        PathBuffer buffer = new PathBuffer(path.length);
+        for (Point2D point : path) {
+            buffer.add(point.getX(), point.getY());
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Makes sure that a path isn't being written into itself.
+     *
+     * @param path The path.
+     * @param out The buffer to write into.
+     * @throws IllegalArgumentException If the buffers are the same.
+     */
+    private static void checkDistinct(PathBuffer path, PathBuffer out) {
+        if (path == out) {
+            throw new IllegalArgumentException("The path and output buffers"
+                                               + " are the same.");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.syedraza.WaveFront;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of {@link SearchWorkspace}s that threads can borrow from.
+ * <p>
+ * Workspaces are created on demand when the pool is empty, and returned
+ * workspaces are kept for reuse up to the pool's capacity. Threads that run
+ * queries for their whole lifetime can use {@link #local()} instead.
+ */
+public class WorkspacePool {
+    /** The workspaces waiting to be borrowed. */
+    private final BlockingQueue<SearchWorkspace> idle;
+    /** The number of workspaces the pool has created. */
+    private final AtomicLong created = new AtomicLong();
+
+    /** A workspace for each thread that has asked for one. */
+    private static final ThreadLocal<SearchWorkspace> LOCAL =
+        new ThreadLocal<SearchWorkspace>() {
+            @Override
+            protected SearchWorkspace initialValue() {
+                return new SearchWorkspace();
+            }
+        };
+
+    /**
+     * Creates a pool that keeps at most the given number of idle workspaces.
+     *
+     * @param capacity The maximum number of idle workspaces.
+     */
+    public WorkspacePool(int capacity) {
+        idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Borrows a workspace from the pool, creating one if none are idle.
+     *
+     * @return The workspace, which should be given back with
+     *         {@link #release(SearchWorkspace)}.
+     */
+    public SearchWorkspace acquire() {
+        SearchWorkspace workspace = idle.poll();
+        if (workspace == null) {
+            workspace = new SearchWorkspace();
+            created.incrementAndGet();
+        }
+
+        return workspace;
+    }
+
+    /**
+     * Gives a borrowed workspace back to the pool. If the pool is already
+     * full, the workspace is discarded.
+     *
+     * @param workspace The workspace.
+     */
+    public void release(SearchWorkspace workspace) {
+        if (workspace == null) {
+            throw new NullPointerException("The workspace is null.");
+        }
+
+        idle.offer(workspace);
+    }
+
+    /**
+     * Returns the number of workspaces the pool has created.
+     *
+     * @return The count.
+     */
+    public long getCreated() {
+        return created.get();
+    }
+
+    /**
+     * Returns the calling thread's own workspace, creating it the first time.
+     *
+     * @return The workspace.
+     */
+    public static SearchWorkspace local() {
+        return LOCAL.get();
+    }
+}
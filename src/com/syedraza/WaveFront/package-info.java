@@ -6,6 +6,10 @@
  * {@link com.syedraza.WaveFront.DNode}s, and along with start and end
  * {@link com.syedraza.WaveFront.Point2D} objects, create a
  * {@link com.syedraza.WaveFront.PathFinder}.
+ * <p>
+ * To plan on one map from several threads, create a
+ * {@link com.syedraza.WaveFront.ObstacleLayer} from the grid and give it to
+ * each thread's PathFinder.
  *
  * @author Syed Raza
  */
@@ -276,7 +276,7 @@ class DrawFrame extends JFrame {
                 // Let the start point replace a blocked node
                 if (grid.getNode(p).getValue() == PathFinder.BLOCKED) {
                     grid.getNode(p).setValue(PathFinder.UNFILLED);
-                    pathFinder.update();
+                    pathFinder.update(p);
                 }
 
                 gridCanvas.setStart(p);
@@ -315,7 +315,7 @@ class DrawFrame extends JFrame {
                     n.setValue(PathFinder.BLOCKED);
                 }
 
-                pathFinder.update();
+                pathFinder.update(p);
             }
 
             resetPath();